@@ -0,0 +1,241 @@
+package com.kyn.qna.service;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+
+import com.kyn.qna.dto.AdditionalQuestion;
+import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.entity.Question;
+import com.kyn.qna.repository.QuestionRepository;
+import com.kyn.qna.repository.SimplifiedQuestionRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * Grading and follow-up writes of a Question: the read-then-save update used before QuestionService
+ * moved to findAndModify, against updateGrade and appendAdditionalQuestions. followUps is the number
+ * of additional questions already stored; a follow-up appends three more.
+ *
+ * Runs against an in-memory server speaking the MongoDB wire protocol, so the time does not stand for
+ * a real server. After each iteration the round trips (commands sent) and the BSON bytes of the
+ * commands and of their replies are printed per operation; those carry over to a real deployment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionWriteBenchmark {
+
+    private static final String ID = "665f1c2e9b1d4a3f2c8e7a10";
+    private static final int NEW_FOLLOW_UPS = 3;
+
+    @Param({ "0", "10", "30" })
+    public int followUps;
+
+    private final WireCounter wire = new WireCounter();
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate mongoTemplate;
+    private QuestionRepository questionRepository;
+    private QuestionService questionService;
+    private Question stored;
+    private QuestionRequest graded;
+    private QuestionRequest followedUp;
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void start() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+            .setLevel(ch.qos.logback.classic.Level.WARN);
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort()))
+            .addCommandListener(wire)
+            .build());
+        mongoTemplate = new ReactiveMongoTemplate(client, "qna-benchmark");
+        ReactiveMongoRepositoryFactory repositories = new ReactiveMongoRepositoryFactory(mongoTemplate);
+        questionRepository = repositories.getRepository(QuestionRepository.class);
+        questionService = new QuestionService(questionRepository,
+            repositories.getRepository(SimplifiedQuestionRepository.class), mongoTemplate);
+
+        List<AdditionalQuestion> storedFollowUps = followUps(0, followUps);
+        stored = Question.builder()
+            ._id(ID)
+            .question("스프링의 트랜잭션 전파 속성 REQUIRES_NEW 의 동작을 설명해 주세요.")
+            .userAnswer("기존 트랜잭션을 일시 중단하고 새 트랜잭션을 시작합니다.")
+            .modelAnswer("REQUIRES_NEW 는 항상 새 물리 트랜잭션을 시작하며, 외부 트랜잭션은 일시 중단됩니다. "
+                + "내부 트랜잭션의 롤백은 외부 트랜잭션에 영향을 주지 않습니다.")
+            .category("spring")
+            .expYears(5)
+            .score(80)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .additionalQuestions(storedFollowUps)
+            .build();
+
+        List<AdditionalQuestion> allFollowUps = new ArrayList<>(storedFollowUps);
+        allFollowUps.addAll(followUps(followUps, NEW_FOLLOW_UPS));
+        graded = request(storedFollowUps);
+        followedUp = request(allFollowUps);
+    }
+
+    /**
+     * Every operation starts from the same stored document; the reset is not counted.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        wire.counting = false;
+        mongoTemplate.save(stored).block();
+        wire.counting = true;
+        operations++;
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        operations = 0;
+        wire.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report(BenchmarkParams params) {
+        System.out.printf("%n%s followUps=%d: %.1f round trips, %d request bytes, %d reply bytes per operation%n",
+            params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1), followUps,
+            (double) wire.commands.get() / operations, wire.requestBytes.get() / operations,
+            wire.replyBytes.get() / operations);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Question gradeReadThenSave() {
+        return readThenSave(graded);
+    }
+
+    @Benchmark
+    public Question gradeFindAndModify() {
+        return questionService.updateGrade(graded).block();
+    }
+
+    @Benchmark
+    public Question followUpReadThenSave() {
+        return readThenSave(followedUp);
+    }
+
+    @Benchmark
+    public Question followUpFindAndModify() {
+        return questionService.appendAdditionalQuestions(followedUp, followUps).block();
+    }
+
+    /**
+     * QuestionService.update before findAndModify
+     */
+    private Question readThenSave(QuestionRequest questionRequest) {
+        return questionRepository.findById(questionRequest._id())
+            .flatMap(existingQuestion -> {
+                existingQuestion.setQuestion(questionRequest.question());
+                existingQuestion.setUserAnswer(questionRequest.userAnswer());
+                existingQuestion.setAdditionalQuestions(questionRequest.additionalQuestions());
+                existingQuestion.setModelAnswer(questionRequest.modelAnswer());
+                existingQuestion.setScore(questionRequest.score());
+                existingQuestion.setUpdatedAt(LocalDateTime.now());
+                return questionRepository.save(existingQuestion);
+            })
+            .block();
+    }
+
+    private QuestionRequest request(List<AdditionalQuestion> additionalQuestions) {
+        return QuestionRequest.builder()
+            ._id(ID)
+            .question(stored.getQuestion())
+            .userAnswer(stored.getUserAnswer())
+            .modelAnswer(stored.getModelAnswer())
+            .category(stored.getCategory())
+            .expYears(stored.getExpYears())
+            .score(85)
+            .additionalQuestions(additionalQuestions)
+            .build();
+    }
+
+    private static List<AdditionalQuestion> followUps(int first, int count) {
+        List<AdditionalQuestion> followUps = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            followUps.add(AdditionalQuestion.builder()
+                .question("추가 질문 " + (i + 1) + ": 트랜잭션 격리 수준 \"REPEATABLE READ\"에서 발생할 수 있는 문제는 무엇인가요?")
+                .answer("팬텀 리드가 발생할 수 있습니다. 범위 조회 중 다른 트랜잭션이 행을 추가하면 결과가 달라집니다.")
+                .build());
+        }
+        return followUps;
+    }
+
+    private static final class WireCounter implements CommandListener {
+        private volatile boolean counting;
+        private final AtomicLong commands = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong replyBytes = new AtomicLong();
+
+        void reset() {
+            commands.set(0);
+            requestBytes.set(0);
+            replyBytes.set(0);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (counting) {
+                commands.incrementAndGet();
+                requestBytes.addAndGet(size(event.getCommand()));
+            }
+        }
+
+        @Override
+        public void commandSucceeded(CommandSucceededEvent event) {
+            if (counting) {
+                replyBytes.addAndGet(size(event.getResponse()));
+            }
+        }
+
+        private static int size(BsonDocument document) {
+            return new RawBsonDocument(document, new BsonDocumentCodec()).getByteBuffer().remaining();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.kyn.qna.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kyn.qna.dto.AdditionalQuestion;
+import com.kyn.qna.dto.CategoryResult;
+import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.dto.SimplifiedQuestionRequest;
+
+/**
+ * Reading and writing the hot path types: a new ObjectMapper per call (JsonStringUtil.parseJson
+ * before JsonCodecs), the shared mapper, and JsonCodecs' cached readers and writers with and
+ * without Blackbird. Run with -prof gc for the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecsBenchmark {
+
+    public enum Type { QUESTION_REQUEST, ADDITIONAL_QUESTIONS, CATEGORY_RESULTS, SIMPLIFIED_QUESTION }
+
+    @Param
+    public Type type;
+
+    private final ObjectMapper sharedMapper = JsonCodecs.newObjectMapper(false);
+    private final JsonCodecs codecs = new JsonCodecs(JsonCodecs.newObjectMapper(false));
+    private final JsonCodecs blackbirdCodecs = new JsonCodecs(JsonCodecs.newObjectMapper(true));
+    private Class<?> targetClass;
+    private Object value;
+    private String json;
+
+    @Setup
+    public void setUp() throws IOException {
+        AdditionalQuestion additionalQuestion = AdditionalQuestion.builder()
+            .question("트랜잭션 격리 수준 \"REPEATABLE READ\"에서 발생할 수 있는 문제는 무엇인가요?")
+            .answer("팬텀 리드가 발생할 수 있습니다. 범위 조회 중 다른 트랜잭션이 행을 추가하면 결과가 달라집니다.")
+            .build();
+        switch (type) {
+            case QUESTION_REQUEST -> {
+                targetClass = QuestionRequest.class;
+                value = QuestionRequest.builder()
+                    ._id("665f1c2e9b1d4a3f2c8e7a10")
+                    .question("스프링의 트랜잭션 전파 속성 REQUIRES_NEW 의 동작을 설명해 주세요.")
+                    .userAnswer("기존 트랜잭션을 일시 중단하고 새 트랜잭션을 시작합니다.")
+                    .modelAnswer("REQUIRES_NEW 는 항상 새 물리 트랜잭션을 시작하며, 외부 트랜잭션은 일시 중단됩니다.")
+                    .category("spring")
+                    .expYears(5)
+                    .score(80)
+                    .additionalQuestions(List.of(additionalQuestion, additionalQuestion, additionalQuestion))
+                    .build();
+            }
+            case ADDITIONAL_QUESTIONS -> {
+                targetClass = AdditionalQuestion[].class;
+                value = new AdditionalQuestion[] { additionalQuestion, additionalQuestion, additionalQuestion };
+            }
+            case CATEGORY_RESULTS -> {
+                targetClass = CategoryResult[].class;
+                CategoryResult[] results = new CategoryResult[10];
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = CategoryResult.builder()
+                        .shouldUpdate(i % 2 == 0)
+                        .name("category-" + i)
+                        .description("category-" + i + " 기술 스택에 대한 간단한 설명")
+                        .build();
+                }
+                value = results;
+            }
+            case SIMPLIFIED_QUESTION -> {
+                targetClass = SimplifiedQuestionRequest.class;
+                value = SimplifiedQuestionRequest.builder()
+                    ._id("665f1c2e9b1d4a3f2c8e7a10")
+                    .question("REQUIRES_NEW 의 동작")
+                    .simplifiedDetail("외부 트랜잭션을 일시 중단하고 새 트랜잭션을 시작한다. 내부 롤백은 외부에 영향을 주지 않는다.")
+                    .category("spring")
+                    .expYears(5)
+                    .build();
+            }
+        }
+        json = sharedMapper.writeValueAsString(value);
+    }
+
+    @Benchmark
+    public Object readNewMapperPerCall() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper.readValue(json, targetClass);
+    }
+
+    @Benchmark
+    public Object readSharedMapper() throws IOException {
+        return sharedMapper.readValue(json, targetClass);
+    }
+
+    @Benchmark
+    public Object readCachedReader() throws IOException {
+        return codecs.read(json, targetClass);
+    }
+
+    @Benchmark
+    public Object readCachedReaderBlackbird() throws IOException {
+        return blackbirdCodecs.read(json, targetClass);
+    }
+
+    @Benchmark
+    public String writeSharedMapper() throws IOException {
+        return sharedMapper.writeValueAsString(value);
+    }
+
+    @Benchmark
+    public String writeCachedWriter() throws IOException {
+        return codecs.write(value);
+    }
+
+    @Benchmark
+    public String writeCachedWriterBlackbird() throws IOException {
+        return blackbirdCodecs.write(value);
+    }
+}
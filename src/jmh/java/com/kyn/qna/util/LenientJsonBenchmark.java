@@ -0,0 +1,153 @@
+package com.kyn.qna.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kyn.qna.dto.AdditionalQuestion;
+
+/**
+ * Fallback parsing of malformed additional-question responses: LenientJson against the regex
+ * cascade it replaced (fixCommonJsonIssues, then the manual pattern with Pattern.compile per call).
+ * Run with -prof gc for the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LenientJsonBenchmark {
+
+    public enum Damage { FENCED, PROSE, TRAILING_COMMA, UNESCAPED_QUOTES, TRUNCATED }
+
+    @Param
+    public Damage damage;
+
+    @Param({ "3", "10" })
+    public int questions;
+
+    private String response;
+    private JsonCodecs jsonCodecs;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonCodecs = new JsonCodecs(JsonCodecs.newObjectMapper(false), AdditionalQuestion[].class);
+        objectMapper = JsonCodecs.newObjectMapper(false);
+        response = damage(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(corpus(questions)), damage);
+    }
+
+    @Benchmark
+    public List<AdditionalQuestion> lenientJson() {
+        try {
+            return Arrays.asList(jsonCodecs.readLenient(response, AdditionalQuestion[].class));
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    @Benchmark
+    public List<AdditionalQuestion> regexCascade() {
+        try {
+            return Arrays.asList(objectMapper.readValue(RegexCascade.extractAndCleanJsonFromResponse(response),
+                AdditionalQuestion[].class));
+        } catch (IOException e) {
+            return RegexCascade.parseAdditionalQuestionsManually(response);
+        }
+    }
+
+    static List<AdditionalQuestion> corpus(int count) {
+        List<AdditionalQuestion> corpus = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            corpus.add(AdditionalQuestion.builder()
+                .question("추가 질문 " + i + ": 트랜잭션 격리 수준 \"REPEATABLE READ\"에서 발생할 수 있는 문제는 무엇인가요?")
+                .answer("팬텀 리드가 발생할 수 있습니다.\n예: 범위 조회 중 다른 트랜잭션이 행을 추가하면 "
+                    + "같은 조건의 두 번째 조회 결과가 달라집니다. 해결하려면 SERIALIZABLE 또는 갭 락을 사용합니다.")
+                .build());
+        }
+        return corpus;
+    }
+
+    /**
+     * The kinds of damage SimulatedModelProvider applies, which are the ones seen in model output.
+     */
+    static String damage(String json, Damage damage) {
+        return switch (damage) {
+            case FENCED -> "```json\n" + json + "\n```";
+            case PROSE -> "Here is the result:\n" + json + "\nLet me know if you need more questions.";
+            case TRAILING_COMMA -> {
+                int close = json.lastIndexOf(']');
+                yield json.substring(0, close) + "," + json.substring(close);
+            }
+            case UNESCAPED_QUOTES -> json.replace("\\\"", "\"");
+            case TRUNCATED -> json.substring(0, json.length() * 3 / 4);
+        };
+    }
+
+    /**
+     * The cleanup used before LenientJson, kept here as the baseline.
+     */
+    static final class RegexCascade {
+
+        static String extractAndCleanJsonFromResponse(String response) {
+            String cleaned = JsonStringUtil.extractJsonFromResponse(response);
+            cleaned = cleaned.replaceAll(",\\s*([\\]}])", "$1");
+            cleaned = fixUnescapedQuotes(cleaned);
+            return fixProblematicCharacters(cleaned);
+        }
+
+        private static String fixUnescapedQuotes(String json) {
+            Pattern pattern = Pattern.compile("\"([^\"]*?)\"([^\"]*?)\"([^\"]*?)\"");
+            Matcher matcher = pattern.matcher(json);
+
+            StringBuffer sb = new StringBuffer();
+            while (matcher.find()) {
+                String replacement = "\"" + matcher.group(1) + "\\\"" + matcher.group(2) + "\\\"" + matcher.group(3) + "\"";
+                matcher.appendReplacement(sb, replacement);
+            }
+            matcher.appendTail(sb);
+
+            return sb.toString();
+        }
+
+        private static String fixProblematicCharacters(String json) {
+            json = json.replaceAll("(?<!\\\\)\\$", "\\\\$");
+            json = json.replaceAll("(?<!\\\\)\\\\(?![\"\\\\])", "\\\\\\\\");
+            return json.replace("\b", "\\b")
+                .replace("\f", "\\f")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+        }
+
+        static List<AdditionalQuestion> parseAdditionalQuestionsManually(String json) {
+            List<AdditionalQuestion> result = new ArrayList<>();
+            Pattern pattern = Pattern.compile("\"question\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*)\",?\\s*\"answer\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*?)\"", Pattern.DOTALL);
+            Matcher matcher = pattern.matcher(json);
+            while (matcher.find()) {
+                result.add(AdditionalQuestion.builder()
+                    .question(matcher.group(1).replaceAll("\\\\\"", "\""))
+                    .answer(matcher.group(2).replaceAll("\\\\\"", "\""))
+                    .build());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.kyn.qna.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering the question creation prompt with PromptTemplate against the chained String.replace
+ * calls it replaced, with the history placeholder filled by historyChars characters of records.
+ * Run with -prof gc for the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    // the question creation prompt of QuestionManageService
+    private static final String CREATION = """
+            You are a developer interviewer.
+            Please create a question that you would like to ask the developer of year {expYears} about technology stack {category} for the interview.
+            In addition, please refer to the past records to give new question or advanced question.
+            answers should be korean.
+            ===========history===========
+            {history}
+            ===========history===========
+             Please respond with ONLY a valid JSON object in this exact format:
+            {
+                "question": "question"
+            }
+    """;
+
+    @Param({ "1000", "8000", "32000" })
+    public int historyChars;
+
+    private final PromptTemplate template = PromptTemplate.compile(CREATION, "history", "category", "expYears");
+    private final String category = "spring";
+    private final Integer expYears = 5;
+    private String history;
+
+    @Setup
+    public void setUp() {
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; records.length() < historyChars; i++) {
+            records.append("- [").append(i % 10).append("y] 스프링 트랜잭션 전파 속성 REQUIRES_NEW 의 동작과 사용 사례를 설명해 주세요. #")
+                .append(i).append('\n');
+        }
+        history = records.substring(0, historyChars);
+    }
+
+    @Benchmark
+    public String promptTemplate() {
+        return template.render(history, category, expYears);
+    }
+
+    @Benchmark
+    public String chainedReplace() {
+        return CREATION
+            .replace("{history}", history)
+            .replace("{category}", category)
+            .replace("{expYears}", String.valueOf(expYears));
+    }
+}
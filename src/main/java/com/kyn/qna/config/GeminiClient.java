@@ -1,6 +1,7 @@
 package com.kyn.qna.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +10,7 @@ import com.google.genai.Client;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@ConditionalOnProperty(name = "gemini.provider", havingValue = "genai", matchIfMissing = true)
 @Slf4j
 public class GeminiClient {
     @Value("${google.api.key}")
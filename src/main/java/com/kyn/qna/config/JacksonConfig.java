@@ -1,5 +1,6 @@
 package com.kyn.qna.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -9,23 +10,51 @@ import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kyn.qna.dto.AdditionalQuestion;
+import com.kyn.qna.dto.CategoryResult;
+import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.dto.QuestionStreamEvent;
+import com.kyn.qna.dto.SimplifiedQuestionRequest;
+import com.kyn.qna.entity.Question;
+import com.kyn.qna.provider.RecordedCall;
+import com.kyn.qna.util.JsonCodecs;
 
+/**
+ * One ObjectMapper for the whole application: the bean, the WebFlux codecs and JsonCodecs share it.
+ * qna.json.blackbird.enabled registers the Blackbird module (off by default).
+ */
 @Configuration
 public class JacksonConfig implements WebFluxConfigurer {
 
+    private final ObjectMapper objectMapper;
+
+    public JacksonConfig(@Value("${qna.json.blackbird.enabled:false}") boolean blackbird) {
+        this.objectMapper = JsonCodecs.newObjectMapper(blackbird);
+    }
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return mapper;
+        return objectMapper;
+    }
+
+    @Bean
+    public JsonCodecs jsonCodecs() {
+        return new JsonCodecs(objectMapper,
+            QuestionRequest.class,
+            Question.class,
+            AdditionalQuestion[].class,
+            CategoryResult.class,
+            CategoryResult[].class,
+            SimplifiedQuestionRequest.class,
+            SimplifiedQuestionRequest[].class,
+            QuestionStreamEvent.class,
+            RecordedCall.class);
     }
 
     @Override
     public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
-        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper()));
-        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper()));
+        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
     }
-} 
\ No newline at end of file
+}
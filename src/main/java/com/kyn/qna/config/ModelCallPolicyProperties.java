@@ -0,0 +1,88 @@
+package com.kyn.qna.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.dto.ModelCallPolicy;
+
+import lombok.Data;
+
+/**
+ * Configurable ModelCallPolicy per call site.
+ * Every call site starts from one of the ModelCallPolicy constants; set fields of the matching
+ * class (gemini.policy.defaults, .interactive, .background) override it for all sites using it,
+ * and gemini.policy.sites.[site].* overrides it for one site only, e.g.
+ * gemini.policy.sites.grade.attempt-timeout=PT45S
+ *
+ * Sites: create, grade, follow-up, question-pool, follow-up-draft, simplified-question,
+ * category-manage, category-manage-all, generic
+ */
+@Component
+@ConfigurationProperties(prefix = "gemini.policy")
+@Data
+public class ModelCallPolicyProperties {
+
+    private Overrides defaults = new Overrides();
+    private Overrides interactive = new Overrides();
+    private Overrides background = new Overrides();
+    private Map<String, Overrides> sites = new HashMap<>();
+
+    /**
+     * Policy for the given call site, starting from base (one of the ModelCallPolicy constants).
+     */
+    public ModelCallPolicy policy(String site, ModelCallPolicy base) {
+        Overrides sitePolicy = sites.get(site);
+        ModelCallPolicy policy = classOf(base).applyTo(base);
+        return sitePolicy == null ? policy : sitePolicy.applyTo(policy);
+    }
+
+    private Overrides classOf(ModelCallPolicy base) {
+        if (base == ModelCallPolicy.INTERACTIVE) {
+            return interactive;
+        }
+        if (base == ModelCallPolicy.BACKGROUND) {
+            return background;
+        }
+        return defaults;
+    }
+
+    /**
+     * Fields left unset keep the value of the policy they are applied to.
+     */
+    @Data
+    public static class Overrides {
+        private Duration attemptTimeout;
+        private Integer maxRetries;
+        private Duration retryBackoff;
+        private Boolean hedge;
+        private Double hedgePercentile;
+        private Duration minHedgeDelay;
+
+        ModelCallPolicy applyTo(ModelCallPolicy policy) {
+            ModelCallPolicy.ModelCallPolicyBuilder builder = policy.toBuilder();
+            if (attemptTimeout != null) {
+                builder.attemptTimeout(attemptTimeout);
+            }
+            if (maxRetries != null) {
+                builder.maxRetries(maxRetries);
+            }
+            if (retryBackoff != null) {
+                builder.retryBackoff(retryBackoff);
+            }
+            if (hedge != null) {
+                builder.hedge(hedge);
+            }
+            if (hedgePercentile != null) {
+                builder.hedgePercentile(hedgePercentile);
+            }
+            if (minHedgeDelay != null) {
+                builder.minHedgeDelay(minHedgeDelay);
+            }
+            return builder.build();
+        }
+    }
+}
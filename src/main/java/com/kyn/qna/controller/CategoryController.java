@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.kyn.qna.dto.CategoryManageResult;
 import com.kyn.qna.dto.CategoryRequest;
 import com.kyn.qna.entity.Category;
 import com.kyn.qna.service.CategoryManageService;
@@ -57,7 +58,7 @@ public class CategoryController {
     }
 
     @PostMapping("category/manage")
-    public Flux<Category> manageCategory() {
+    public Flux<CategoryManageResult> manageCategory() {
         log.info("Managing all categories");    
         return categoryManageService.manageAllCategories();
     }
@@ -1,39 +1,128 @@
 package com.kyn.qna.controller;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.dto.QuestionStreamEvent;
 import com.kyn.qna.entity.Question;
+import com.kyn.qna.exception.ModelDeadlineExceededException;
+import com.kyn.qna.exception.ModelOverloadedException;
+import com.kyn.qna.exception.ModelUnavailableException;
 import com.kyn.qna.service.QuestionManageService;
+import com.kyn.qna.util.DeadlineUtil;
 
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("question")
+@Slf4j
 public class QuestionController {
+    /**
+     * Optional client timeout in milliseconds; the endpoint default applies when absent
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
     private final QuestionManageService questionManageService;
+    private final Duration createTimeout;
+    private final Duration answerTimeout;
+    private final Duration additionalQuestionTimeout;
 
-    public QuestionController(QuestionManageService questionManageService) {
+    public QuestionController(QuestionManageService questionManageService,
+                              @Value("${question.timeout.create:PT30S}") Duration createTimeout,
+                              @Value("${question.timeout.answer:PT60S}") Duration answerTimeout,
+                              @Value("${question.timeout.additional-question:PT60S}") Duration additionalQuestionTimeout) {
         this.questionManageService = questionManageService;
+        this.createTimeout = createTimeout;
+        this.answerTimeout = answerTimeout;
+        this.additionalQuestionTimeout = additionalQuestionTimeout;
     }
     
     
     @PostMapping
-    public Mono<Question> createQuestion(@RequestBody QuestionRequest questionRequest) {
-        return questionManageService.createQuestion(questionRequest);
+    public Mono<Question> createQuestion(@RequestBody QuestionRequest questionRequest,
+                                         @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return questionManageService.createQuestion(questionRequest, DeadlineUtil.fromTimeout(timeoutMs, createTimeout));
     }
 
     @PostMapping("answer")
-    public Mono<Question> updateQuestion(@RequestBody QuestionRequest questionRequest) {
-        return questionManageService.userAnswered(questionRequest);
+    public Mono<Question> updateQuestion(@RequestBody QuestionRequest questionRequest,
+                                         @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return questionManageService.userAnswered(questionRequest, DeadlineUtil.fromTimeout(timeoutMs, answerTimeout));
     }
 
     @PostMapping("additional-question")
-    public Mono<Question> getAdditionalQuestionsAndAnswers(@RequestBody QuestionRequest questionRequest) {
-        return questionManageService.getAdditionalQuestionsAndAnswers(questionRequest);
+    public Mono<Question> getAdditionalQuestionsAndAnswers(@RequestBody QuestionRequest questionRequest,
+                                                           @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return questionManageService.getAdditionalQuestionsAndAnswers(questionRequest,
+            DeadlineUtil.fromTimeout(timeoutMs, additionalQuestionTimeout));
+    }
+
+    /*
+     * Server-sent event variants: delta and field events while the model response is generated,
+     * then a question event with the stored Question, or an error event.
+     */
+
+    @PostMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<QuestionStreamEvent>> createQuestionStream(@RequestBody QuestionRequest questionRequest,
+                                                                           @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return toServerSentEvents(questionManageService.createQuestionStream(questionRequest,
+            DeadlineUtil.fromTimeout(timeoutMs, createTimeout)));
+    }
+
+    @PostMapping(value = "answer/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<QuestionStreamEvent>> updateQuestionStream(@RequestBody QuestionRequest questionRequest,
+                                                                           @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return toServerSentEvents(questionManageService.userAnsweredStream(questionRequest,
+            DeadlineUtil.fromTimeout(timeoutMs, answerTimeout)));
+    }
+
+    @PostMapping(value = "additional-question/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<QuestionStreamEvent>> getAdditionalQuestionsAndAnswersStream(@RequestBody QuestionRequest questionRequest,
+                                                                                             @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        return toServerSentEvents(questionManageService.getAdditionalQuestionsAndAnswersStream(questionRequest,
+            DeadlineUtil.fromTimeout(timeoutMs, additionalQuestionTimeout)));
+    }
+
+    // the status is already sent once the stream started, so failures are reported as an event
+    private static Flux<ServerSentEvent<QuestionStreamEvent>> toServerSentEvents(Flux<QuestionStreamEvent> events) {
+        return events
+            .onErrorResume(error -> {
+                if (error instanceof ResponseStatusException) {
+                    log.warn("Question stream failed: {}", error.getMessage());
+                } else {
+                    log.error("Question stream failed", error);
+                }
+                return Mono.just(QuestionStreamEvent.error(clientMessage(error)));
+            })
+            .map(event -> ServerSentEvent.builder(event).event(event.type()).build());
+    }
+
+    /**
+     * Fixed message per known failure; exception messages can carry provider responses or prompts.
+     */
+    private static String clientMessage(Throwable error) {
+        if (error instanceof ModelDeadlineExceededException) {
+            return "The request took too long, please try again";
+        }
+        if (error instanceof ModelOverloadedException) {
+            return "The service is busy, please try again shortly";
+        }
+        if (error instanceof ModelUnavailableException) {
+            return "The model is temporarily unavailable, please try again later";
+        }
+        return "Something went wrong while generating the response";
     }
 
 }
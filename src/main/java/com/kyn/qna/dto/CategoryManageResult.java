@@ -0,0 +1,31 @@
+package com.kyn.qna.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one category in a manage-all run.
+ * description - the description after the run (the new one when UPDATED)
+ * error - why the write failed, only for FAILED
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CategoryManageResult(
+    String name,
+    Outcome outcome,
+    String description,
+    String error
+) {
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    public static CategoryManageResult of(String name, Outcome outcome, String description) {
+        return new CategoryManageResult(name, outcome, description, null);
+    }
+
+    public static CategoryManageResult failed(String name, String description, String error) {
+        return new CategoryManageResult(name, Outcome.FAILED, description, error);
+    }
+}
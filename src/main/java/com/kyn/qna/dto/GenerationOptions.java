@@ -0,0 +1,41 @@
+package com.kyn.qna.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import lombok.Builder;
+
+/**
+ * Per call site options for a model call.
+ * cacheTtl - cache the response for the given time, null or zero disables caching
+ * priority - scheduling lane, INTERACTIVE when not set
+ * deadline - the call (including queueing) is cancelled when it passes, null means no deadline
+ * task - what the call is for, GENERIC when not set
+ * policy - attempt timeout, retry and hedging policy, ModelCallPolicy.DEFAULT when not set
+ */
+@Builder(toBuilder = true)
+public record GenerationOptions(
+    Duration cacheTtl,
+    ModelPriority priority,
+    Instant deadline,
+    ModelTask task,
+    ModelCallPolicy policy
+) {
+    public static final GenerationOptions DEFAULT = GenerationOptions.builder().build();
+
+    public GenerationOptions {
+        if (priority == null) {
+            priority = ModelPriority.INTERACTIVE;
+        }
+        if (task == null) {
+            task = ModelTask.GENERIC;
+        }
+        if (policy == null) {
+            policy = ModelCallPolicy.DEFAULT;
+        }
+    }
+
+    public boolean cacheEnabled() {
+        return cacheTtl != null && !cacheTtl.isZero() && !cacheTtl.isNegative();
+    }
+}
@@ -0,0 +1,58 @@
+package com.kyn.qna.dto;
+
+import java.time.Duration;
+
+import lombok.Builder;
+
+/**
+ * Timeout, retry and hedging policy for a model call site.
+ * attemptTimeout - limit for a single attempt, including time spent waiting for capacity
+ * maxRetries - retries after the first attempt, each one paid from the shared retry budget
+ * retryBackoff - base delay of the jittered exponential backoff between retries
+ * hedge - send a second attempt when the first one is slower than hedgePercentile of recent calls
+ * hedgePercentile - e.g. 0.95 hedges calls slower than the observed p95
+ * minHedgeDelay - lower bound for the hedge delay while few samples are available
+ *
+ * The constants are the code defaults; call sites resolve them through ModelCallPolicyProperties
+ * so they can be tuned per site.
+ */
+@Builder(toBuilder = true)
+public record ModelCallPolicy(
+    Duration attemptTimeout,
+    int maxRetries,
+    Duration retryBackoff,
+    boolean hedge,
+    double hedgePercentile,
+    Duration minHedgeDelay
+) {
+    public ModelCallPolicy {
+        // hedging can be switched on from configuration for a policy that does not set these
+        if (hedgePercentile <= 0 || hedgePercentile >= 1) {
+            hedgePercentile = 0.95;
+        }
+        if (minHedgeDelay == null) {
+            minHedgeDelay = Duration.ZERO;
+        }
+    }
+
+    public static final ModelCallPolicy DEFAULT = ModelCallPolicy.builder()
+        .attemptTimeout(Duration.ofSeconds(60))
+        .maxRetries(1)
+        .retryBackoff(Duration.ofMillis(500))
+        .build();
+
+    public static final ModelCallPolicy INTERACTIVE = ModelCallPolicy.builder()
+        .attemptTimeout(Duration.ofSeconds(30))
+        .maxRetries(1)
+        .retryBackoff(Duration.ofMillis(300))
+        .hedge(true)
+        .hedgePercentile(0.95)
+        .minHedgeDelay(Duration.ofSeconds(2))
+        .build();
+
+    public static final ModelCallPolicy BACKGROUND = ModelCallPolicy.builder()
+        .attemptTimeout(Duration.ofSeconds(90))
+        .maxRetries(3)
+        .retryBackoff(Duration.ofSeconds(2))
+        .build();
+}
@@ -0,0 +1,11 @@
+package com.kyn.qna.dto;
+
+/**
+ * Scheduling lane for a model call.
+ * INTERACTIVE - a user is waiting on the response
+ * BACKGROUND - summarization, category maintenance and other deferred work
+ */
+public enum ModelPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
@@ -0,0 +1,13 @@
+package com.kyn.qna.dto;
+
+/**
+ * What a model call is for. Used to key latency statistics and per task settings.
+ */
+public enum ModelTask {
+    CREATE,
+    GRADE,
+    FOLLOW_UP,
+    SUMMARIZE,
+    CATEGORY_MANAGE,
+    GENERIC
+}
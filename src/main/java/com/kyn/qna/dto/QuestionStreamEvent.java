@@ -0,0 +1,42 @@
+package com.kyn.qna.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.kyn.qna.entity.Question;
+import com.kyn.qna.util.IncrementalJsonParser;
+
+/**
+ * Event of a streamed /question endpoint.
+ * delta - text appended to a field of the model response (field and text set)
+ * field - a field of the model response is complete (field and value set)
+ * question - the persisted Question, the last event of a successful stream
+ * error - the stream failed (text set), the last event
+ * Fields are paths in the model response, e.g. "score", "modelAnswer" or "[0].answer".
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QuestionStreamEvent(
+    String type,
+    String field,
+    String text,
+    Object value,
+    Question question
+) {
+    public static final String DELTA = "delta";
+    public static final String FIELD = "field";
+    public static final String QUESTION = "question";
+    public static final String ERROR = "error";
+
+    public static QuestionStreamEvent of(IncrementalJsonParser.Event event) {
+        if (event.type() == IncrementalJsonParser.EventType.TEXT) {
+            return new QuestionStreamEvent(DELTA, event.path(), event.text(), null, null);
+        }
+        return new QuestionStreamEvent(FIELD, event.path(), null, event.value(), null);
+    }
+
+    public static QuestionStreamEvent of(Question question) {
+        return new QuestionStreamEvent(QUESTION, null, null, null, question);
+    }
+
+    public static QuestionStreamEvent error(String message) {
+        return new QuestionStreamEvent(ERROR, null, message, null, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.kyn.qna.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Document(collection = "responseCache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CachedResponse {
+    @Id
+    private String _id;
+    private String model;
+    private String response;
+    private Instant createdAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.kyn.qna.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.kyn.qna.dto.AdditionalQuestion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Additional questions generated speculatively after grading.
+ * _id is the question id; inputHash identifies the graded question and answer the draft was made for.
+ */
+@Document(collection = "followUpDraft")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FollowUpDraft {
+    @Id
+    private String _id;
+    private String inputHash;
+    private List<AdditionalQuestion> additionalQuestions;
+    private Instant createdAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.kyn.qna.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Generated question that was not served yet.
+ * Claiming removes it from the pool, so each pooled question is served once.
+ */
+@Document(collection = "questionPool")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PooledQuestion {
+    @Id
+    private String _id;
+    private String question;
+    private String category;
+    private Integer expYears;
+    private Instant createdAt;
+    private Instant expiresAt;
+}
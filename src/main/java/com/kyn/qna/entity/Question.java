@@ -1,6 +1,7 @@
 package com.kyn.qna.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.kyn.qna.dto.AdditionalQuestion;
 import lombok.Data;
@@ -29,4 +30,8 @@ public class Question {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<AdditionalQuestion> additionalQuestions;
+
+    // set on responses served from stored questions while the model is unavailable, not persisted
+    @Transient
+    private Boolean degraded;
 } 
\ No newline at end of file
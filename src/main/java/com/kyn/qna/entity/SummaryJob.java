@@ -0,0 +1,39 @@
+package com.kyn.qna.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pending SimplifiedQuestion generation for a question.
+ * _id is the question id, so re-enqueueing a question resets its job.
+ */
+@Document(collection = "summaryJob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SummaryJob {
+    @Id
+    private String _id;
+    private Status status;
+    private Integer attempts;
+    private Instant nextAttemptAt;
+    private String leaseOwner;
+    private Instant leaseExpiresAt;
+    private String lastError;
+    private Instant enqueuedAt;
+    private Instant updatedAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        FAILED
+    }
+}
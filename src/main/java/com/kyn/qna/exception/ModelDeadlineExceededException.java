@@ -0,0 +1,15 @@
+package com.kyn.qna.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when a request deadline expires before the model call (and the work after it) finished.
+ * Surfaces to the client as 504 Gateway Timeout.
+ */
+public class ModelDeadlineExceededException extends ResponseStatusException {
+
+    public ModelDeadlineExceededException(String reason) {
+        super(HttpStatus.GATEWAY_TIMEOUT, reason);
+    }
+}
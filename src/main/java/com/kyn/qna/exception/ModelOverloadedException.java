@@ -0,0 +1,15 @@
+package com.kyn.qna.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when a model call is shed because there is no capacity left.
+ * Surfaces to the client as 503 Service Unavailable.
+ */
+public class ModelOverloadedException extends ResponseStatusException {
+
+    public ModelOverloadedException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+}
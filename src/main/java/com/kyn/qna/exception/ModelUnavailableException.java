@@ -0,0 +1,15 @@
+package com.kyn.qna.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when the model circuit breaker is open and calls are not sent to the provider.
+ * Surfaces to the client as 503 Service Unavailable unless the call site has a degraded fallback.
+ */
+public class ModelUnavailableException extends ResponseStatusException {
+
+    public ModelUnavailableException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+}
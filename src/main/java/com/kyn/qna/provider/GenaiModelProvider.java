@@ -0,0 +1,100 @@
+package com.kyn.qna.provider;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableList;
+import com.google.genai.Client;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.Part;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ModelProvider backed by the google-genai SDK client.
+ *
+ * The SDK's HTTP client does blocking socket I/O that ignores thread interrupts, so a cancelled
+ * call (client gone, deadline passed) keeps its request open and its gemini-call thread busy until
+ * the provider responds; only the result is dropped. Use gemini.provider=webclient where cancelling
+ * has to abort the upstream request.
+ */
+@Component
+@ConditionalOnProperty(name = "gemini.provider", havingValue = "genai", matchIfMissing = true)
+@Slf4j
+public class GenaiModelProvider implements ModelProvider {
+
+    private final Client aiClient;
+    private final ResponseStreamBridge responseStreamBridge;
+    private final Scheduler callScheduler;
+
+    public GenaiModelProvider(Client aiClient, ResponseStreamBridge responseStreamBridge,
+                              @Value("${gemini.call.thread-cap:64}") int callThreadCap,
+                              @Value("${gemini.call.queued-task-cap:1000}") int queuedTaskCap) {
+        this.aiClient = aiClient;
+        this.responseStreamBridge = responseStreamBridge;
+        // calls beyond the threads and the queue are rejected instead of piling up
+        this.callScheduler = Schedulers.newBoundedElastic(callThreadCap, queuedTaskCap, "gemini-call");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callScheduler.dispose();
+    }
+
+    @Override
+    public Mono<String> generate(String model, String prompt) {
+        List<Content> contents = contents(prompt);
+        GenerateContentConfig config = config();
+
+        // the blocking call runs on its own bounded scheduler, off the event loops; when the subscriber
+        // cancels, the result is dropped and never persisted, but the HTTP exchange runs to completion
+        return Mono.fromCallable(() -> aiClient.models.generateContent(model, contents, config))
+            .subscribeOn(callScheduler)
+            .flatMap(response -> Mono.justOrEmpty(firstText(response)));
+    }
+
+    @Override
+    public Flux<String> generateStream(String model, String prompt) {
+        return responseStreamBridge.drain(Mono.fromFuture(() -> aiClient.async.models.generateContentStream(model, contents(prompt), config())))
+            .flatMap(response -> Mono.justOrEmpty(firstText(response)));
+    }
+
+    private static List<Content> contents(String prompt) {
+        return ImmutableList.of(
+            Content.builder()
+              .role("user")
+              .parts(ImmutableList.of(
+                Part.fromText(prompt)
+              ))
+              .build()
+          );
+    }
+
+    private static GenerateContentConfig config() {
+        return GenerateContentConfig
+          .builder()
+          .responseMimeType("text/plain")
+          .build();
+    }
+
+    private static Optional<String> firstText(GenerateContentResponse response) {
+        return response.candidates()
+            .filter(candidates -> !candidates.isEmpty())
+            .map(candidates -> candidates.get(0))
+            .flatMap(candidate -> candidate.content())
+            .flatMap(content -> content.parts())
+            .filter(parts -> !parts.isEmpty())
+            .flatMap(parts -> parts.get(0).text());
+    }
+}
@@ -0,0 +1,23 @@
+package com.kyn.qna.provider;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Transport for model calls used by GeminiService.
+ * The implementation is selected with gemini.provider (genai by default).
+ *
+ * Both methods are lazy, and cancelling the returned publisher must abort the upstream request.
+ */
+public interface ModelProvider {
+
+    /**
+     * Text of the first candidate, empty when the model returned no text.
+     */
+    Mono<String> generate(String model, String prompt);
+
+    /**
+     * Text chunks of the first candidate as they arrive.
+     */
+    Flux<String> generateStream(String model, String prompt);
+}
@@ -0,0 +1,134 @@
+package com.kyn.qna.provider;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.service.PromptCoalescer;
+import com.kyn.qna.util.JsonCodecs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Records model calls with their timings into a JSON lines corpus for ReplayModelProvider.
+ * Disabled by default (gemini.recorder.enabled); a path ending in .gz is written gzip compressed.
+ *
+ * Prompts contain user answers, so the corpus has to be handled like production data.
+ * Lines are written on a single dedicated thread, never on the calling thread.
+ */
+@Component
+@Slf4j
+public class ModelTrafficRecorder {
+
+    private final JsonCodecs jsonCodecs;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final Scheduler writer;
+    private BufferedWriter out;
+
+    public ModelTrafficRecorder(JsonCodecs jsonCodecs,
+                                @Value("${gemini.recorder.enabled:false}") boolean enabled,
+                                @Value("${gemini.recorder.path:model-corpus.jsonl.gz}") String path,
+                                @Value("${gemini.recorder.sample-rate:1.0}") double sampleRate) throws IOException {
+        this.jsonCodecs = jsonCodecs;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.writer = enabled ? Schedulers.newSingle("model-recorder") : null;
+        if (enabled) {
+            OutputStream stream = Files.newOutputStream(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (path.endsWith(".gz")) {
+                // appending to a gzip file adds a member, which GZIPInputStream reads as one stream
+                stream = new GZIPOutputStream(stream, true);
+            }
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            log.info("Recording model traffic to {}", path);
+        }
+    }
+
+    public Mono<String> record(String model, String prompt, Mono<String> call) {
+        if (!sampled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnNext(response -> write(new RecordedCall(model, PromptCoalescer.hash(prompt), prompt,
+                response, elapsedMillis(start), null, Instant.now())));
+        });
+    }
+
+    public Flux<String> recordStream(String model, String prompt, Flux<String> call) {
+        if (!sampled()) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            List<RecordedCall.Chunk> chunks = new ArrayList<>();
+            return call
+                .doOnNext(text -> chunks.add(new RecordedCall.Chunk(elapsedMillis(start), text)))
+                .doOnComplete(() -> {
+                    if (chunks.isEmpty()) {
+                        return;
+                    }
+                    StringBuilder response = new StringBuilder();
+                    chunks.forEach(chunk -> response.append(chunk.text()));
+                    write(new RecordedCall(model, PromptCoalescer.hash(prompt), prompt, response.toString(),
+                        chunks.get(0).offsetMs(), List.copyOf(chunks), Instant.now()));
+                });
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        writer.dispose();
+        synchronized (this) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("Failed to close model traffic corpus: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean sampled() {
+        return enabled && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void write(RecordedCall call) {
+        writer.schedule(() -> {
+            synchronized (this) {
+                try {
+                    out.write(jsonCodecs.write(call));
+                    out.newLine();
+                    out.flush();
+                } catch (IOException e) {
+                    log.warn("Failed to record model call: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
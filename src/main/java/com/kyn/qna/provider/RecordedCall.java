@@ -0,0 +1,21 @@
+package com.kyn.qna.provider;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One model call of the record/replay corpus, stored as a JSON line.
+ * latencyMs - time until the complete response (non streaming) or the first chunk (streaming)
+ * chunks - streamed chunks with their offset from the start of the call, null for non streaming calls
+ */
+public record RecordedCall(
+    String model,
+    String promptHash,
+    String prompt,
+    String response,
+    long latencyMs,
+    List<Chunk> chunks,
+    Instant recordedAt
+) {
+    public record Chunk(long offsetMs, String text) {}
+}
@@ -0,0 +1,178 @@
+package com.kyn.qna.provider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.service.PromptCoalescer;
+import com.kyn.qna.util.JsonCodecs;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Offline ModelProvider that replays a corpus written by ModelTrafficRecorder (gemini.provider=replay).
+ *
+ * A prompt is matched by its hash first. Prompts that were not recorded exactly (different
+ * history, different user answer) fall back to the recorded prompt with the most similar
+ * words, if the similarity reaches min-similarity. Calls with several recordings cycle through them.
+ *
+ * Recorded latencies and chunk offsets are divided by speed: 1 replays in real time,
+ * 10 ten times faster, 0 without any delay.
+ */
+@Component
+@ConditionalOnProperty(name = "gemini.provider", havingValue = "replay")
+@Slf4j
+public class ReplayModelProvider implements ModelProvider {
+
+    private final double speed;
+    private final double minSimilarity;
+    private final Map<String, List<RecordedCall>> byHash = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    // fuzzy matches are a linear scan, remember them per prompt hash
+    private final Map<String, List<RecordedCall>> fuzzyMatches = new ConcurrentHashMap<>();
+
+    public ReplayModelProvider(JsonCodecs jsonCodecs,
+                               @Value("${gemini.replay.path:model-corpus.jsonl.gz}") String path,
+                               @Value("${gemini.replay.speed:1.0}") double speed,
+                               @Value("${gemini.replay.min-similarity:0.3}") double minSimilarity) throws IOException {
+        this.speed = speed;
+        this.minSimilarity = minSimilarity;
+
+        InputStream stream = Files.newInputStream(Path.of(path));
+        if (path.endsWith(".gz")) {
+            stream = new GZIPInputStream(stream);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                RecordedCall call = jsonCodecs.read(line, RecordedCall.class);
+                byHash.computeIfAbsent(call.promptHash(), hash -> new ArrayList<>()).add(call);
+            }
+        }
+        byHash.values().forEach(calls -> entries.add(new Entry(words(calls.get(0).prompt()), calls)));
+        log.info("Replaying {} recorded prompts from {} at speed {}", byHash.size(), path, speed);
+    }
+
+    @Override
+    public Mono<String> generate(String model, String prompt) {
+        return Mono.defer(() -> {
+            RecordedCall call = match(prompt);
+            if (call == null) {
+                return Mono.error(new IllegalStateException("No recorded response for prompt " + PromptCoalescer.hash(prompt)));
+            }
+            long latencyMs = call.chunks() == null
+                ? call.latencyMs()
+                : call.chunks().get(call.chunks().size() - 1).offsetMs();
+            return Mono.delay(scaled(latencyMs)).thenReturn(call.response());
+        });
+    }
+
+    @Override
+    public Flux<String> generateStream(String model, String prompt) {
+        return Flux.defer(() -> {
+            RecordedCall call = match(prompt);
+            if (call == null) {
+                return Flux.error(new IllegalStateException("No recorded response for prompt " + PromptCoalescer.hash(prompt)));
+            }
+            if (call.chunks() == null) {
+                return Mono.delay(scaled(call.latencyMs())).thenReturn(call.response()).flux();
+            }
+            // each chunk is emitted at its recorded offset from the start of the call
+            List<RecordedCall.Chunk> chunks = call.chunks();
+            return Flux.range(0, chunks.size())
+                .concatMap(i -> {
+                    long gap = chunks.get(i).offsetMs() - (i == 0 ? 0 : chunks.get(i - 1).offsetMs());
+                    return Mono.delay(scaled(Math.max(0, gap))).thenReturn(chunks.get(i).text());
+                });
+        });
+    }
+
+    private RecordedCall match(String prompt) {
+        String hash = PromptCoalescer.hash(prompt);
+        List<RecordedCall> calls = byHash.get(hash);
+        if (calls == null) {
+            calls = fuzzyMatches.computeIfAbsent(hash, h -> closest(prompt));
+        }
+        if (calls.isEmpty()) {
+            return null;
+        }
+        int next = cursors.computeIfAbsent(hash, h -> new AtomicInteger()).getAndIncrement();
+        return calls.get(Math.floorMod(next, calls.size()));
+    }
+
+    private List<RecordedCall> closest(String prompt) {
+        Set<String> words = words(prompt);
+        Entry best = null;
+        double bestSimilarity = minSimilarity;
+        for (Entry entry : entries) {
+            double similarity = jaccard(words, entry.words());
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                best = entry;
+            }
+        }
+        if (best == null) {
+            log.warn("No recorded prompt is similar enough to prompt {}", PromptCoalescer.hash(prompt));
+            return List.of();
+        }
+        log.debug("Replaying fuzzy match with similarity {}", bestSimilarity);
+        return best.calls();
+    }
+
+    private Duration scaled(long millis) {
+        if (speed <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.round(millis / speed));
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 1) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private record Entry(Set<String> words, List<RecordedCall> calls) {}
+}
@@ -0,0 +1,53 @@
+package com.kyn.qna.provider;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.genai.JsonSerializable;
+import com.google.genai.ResponseStream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Adapts the SDK's blocking ResponseStream to a Flux.
+ * The iterator is drained on a dedicated bounded scheduler (never on a Netty event loop),
+ * one element per downstream request, and the stream is closed when the subscriber
+ * cancels, e.g. when an SSE client disconnects.
+ */
+@Component
+@Slf4j
+public class ResponseStreamBridge {
+
+    private final Scheduler scheduler;
+
+    public ResponseStreamBridge(@Value("${gemini.stream.thread-cap:32}") int threadCap,
+                                @Value("${gemini.stream.queued-task-cap:1000}") int queuedTaskCap) {
+        this.scheduler = Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "gemini-stream");
+    }
+
+    public <T extends JsonSerializable> Flux<T> drain(Mono<ResponseStream<T>> responseStream) {
+        return responseStream
+            // a stream that arrives after the subscriber went away still has to be closed
+            .doOnDiscard(ResponseStream.class, ResponseStreamBridge::close)
+            .flatMapMany(stream -> Flux.using(() -> stream, s -> Flux.fromIterable(s), ResponseStreamBridge::close)
+                .subscribeOn(scheduler));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    private static void close(ResponseStream<?> stream) {
+        try {
+            stream.close();
+        } catch (Exception e) {
+            log.debug("Failed to close model response stream: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.kyn.qna.provider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Offline ModelProvider for load tests and benchmarks (gemini.provider=simulator).
+ *
+ * Recognizes every prompt of QuestionManageService and CategoryManageService and answers
+ * with templated JSON in the requested format. Latency is drawn from a log-normal
+ * distribution (median and sigma), streamed responses are split into chunks with a
+ * fixed pace, and a share of calls can fail with a provider style error or return
+ * malformed JSON of the kinds real models produce.
+ */
+@Component
+@ConditionalOnProperty(name = "gemini.provider", havingValue = "simulator")
+@Slf4j
+public class SimulatedModelProvider implements ModelProvider {
+
+    private static final Pattern CREATE = Pattern.compile("developer of year (\\S+) about technology stack (.+?) for the interview");
+    // one QuestionRequest record of a summarize prompt: _id, then category and expYears further on
+    private static final Pattern QUESTION_RECORD = Pattern.compile(
+        "QuestionRequest\\[_id=([^,\\]]*),.*?, category=([^,\\]]*), expYears=(\\d+|null)", Pattern.DOTALL);
+    private static final Pattern CATEGORY_NAME = Pattern.compile("\\bname=([^,)]+)");
+    private static final Pattern SINGLE_CATEGORY = Pattern.compile("\"name\": \"([^\"]*)\",\\s*\"description\": \"([^\"]*)\"\\s*$");
+
+    private final ObjectWriter responseWriter;
+    private final double medianMillis;
+    private final double sigma;
+    private final long maxLatencyMillis;
+    private final double errorRate;
+    private final double malformedRate;
+    private final int chunkChars;
+    private final Duration chunkInterval;
+
+    public SimulatedModelProvider(ObjectMapper objectMapper,
+                                  @Value("${gemini.simulator.latency.median:PT1.5S}") Duration median,
+                                  @Value("${gemini.simulator.latency.sigma:0.5}") double sigma,
+                                  @Value("${gemini.simulator.latency.max:PT60S}") Duration maxLatency,
+                                  @Value("${gemini.simulator.error-rate:0.0}") double errorRate,
+                                  @Value("${gemini.simulator.malformed-rate:0.0}") double malformedRate,
+                                  @Value("${gemini.simulator.stream.chunk-chars:40}") int chunkChars,
+                                  @Value("${gemini.simulator.stream.chunk-interval:PT0.05S}") Duration chunkInterval) {
+        this.responseWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.medianMillis = median.toMillis();
+        this.sigma = sigma;
+        this.maxLatencyMillis = maxLatency.toMillis();
+        this.errorRate = errorRate;
+        this.malformedRate = malformedRate;
+        this.chunkChars = chunkChars;
+        this.chunkInterval = chunkInterval;
+        log.warn("Using simulated model provider, median latency {} and error rate {}", median, errorRate);
+    }
+
+    @Override
+    public Mono<String> generate(String model, String prompt) {
+        return Mono.delay(sampleLatency())
+            .flatMap(tick -> respond(prompt));
+    }
+
+    @Override
+    public Flux<String> generateStream(String model, String prompt) {
+        return Mono.delay(sampleLatency())
+            .flatMap(tick -> respond(prompt))
+            .flatMapMany(response -> Flux.fromIterable(chunks(response))
+                .delayElements(chunkInterval));
+    }
+
+    private Mono<String> respond(String prompt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < errorRate) {
+            return Mono.error(new IllegalStateException(random.nextBoolean()
+                ? "503 UNAVAILABLE: simulated provider error"
+                : "429 RESOURCE_EXHAUSTED: simulated quota error"));
+        }
+        try {
+            String json = responseWriter.writeValueAsString(body(prompt));
+            return Mono.just(random.nextDouble() < malformedRate ? malform(json) : json);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Duration sampleLatency() {
+        double millis = medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofMillis(Math.min(maxLatencyMillis, Math.round(millis)));
+    }
+
+    /**
+     * Response object for the prompt, in the format the prompt asks for.
+     */
+    private Object body(String prompt) {
+        int variant = ThreadLocalRandom.current().nextInt(1000);
+        if (prompt.contains("Please create a question")) {
+            Matcher matcher = CREATE.matcher(prompt);
+            boolean found = matcher.find();
+            String expYears = found ? matcher.group(1) : "?";
+            String category = found ? matcher.group(2) : "general";
+            return Map.of("question", category + " 경력 " + expYears + "년차 개발자를 위한 시뮬레이션 질문 #" + variant
+                + ": 실무에서 겪은 \"장애\" 사례와 해결 방법을 설명해 주세요.");
+        }
+        if (prompt.contains("Please grade the question")) {
+            return Map.of(
+                "score", 40 + variant % 61,
+                "modelAnswer", "시뮬레이션 모범 답변 #" + variant + ": 핵심 개념을 먼저 정의하고,\n실제 예시와 함께 보완할 점을 설명합니다.");
+        }
+        if (prompt.contains("For each question record below")) {
+            List<Map<String, Object>> simplified = new ArrayList<>();
+            Matcher matcher = QUESTION_RECORD.matcher(prompt);
+            while (matcher.find()) {
+                simplified.add(simplified(matcher, variant));
+            }
+            return simplified;
+        }
+        if (prompt.contains("simplify the question and answer")) {
+            Matcher matcher = QUESTION_RECORD.matcher(prompt);
+            return simplified(matcher.find() ? matcher : null, variant);
+        }
+        if (prompt.contains("You are a category manager")) {
+            Matcher single = SINGLE_CATEGORY.matcher(prompt.strip());
+            if (single.find()) {
+                return category(single.group(1), variant);
+            }
+            List<Map<String, Object>> categories = new ArrayList<>();
+            Matcher matcher = CATEGORY_NAME.matcher(prompt);
+            while (matcher.find()) {
+                categories.add(category(matcher.group(1), variant));
+            }
+            return categories;
+        }
+        // checked last, the records of the other prompts may contain AdditionalQuestion objects
+        if (prompt.contains("AdditionalQuestion")) {
+            List<Map<String, String>> additional = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                additional.add(Map.of(
+                    "question", "시뮬레이션 추가 질문 " + i + " (#" + variant + ")",
+                    "answer", "추가 질문 " + i + "에 대한 답변입니다. 예: \"timeout\" 설정을 확인합니다."));
+            }
+            return additional;
+        }
+        return Map.of("text", "시뮬레이션 응답 #" + variant);
+    }
+
+    /**
+     * record - a QUESTION_RECORD match, category and expYears are copied from it as the model would
+     */
+    private static Map<String, Object> simplified(Matcher record, int variant) {
+        String expYears = record == null ? "null" : record.group(3);
+        Map<String, Object> simplified = new LinkedHashMap<>();
+        simplified.put("_id", record == null ? null : record.group(1));
+        simplified.put("question", "시뮬레이션 요약 질문 #" + variant);
+        simplified.put("simplifiedDetail", "질문과 답변의 핵심을 100단어 이내로 요약한 내용입니다.");
+        simplified.put("category", record == null ? null : record.group(2));
+        simplified.put("expYears", expYears.equals("null") ? null : Integer.valueOf(expYears));
+        return simplified;
+    }
+
+    private static Map<String, Object> category(String name, int variant) {
+        Map<String, Object> category = new LinkedHashMap<>();
+        category.put("shouldUpdate", variant % 2 == 0);
+        category.put("name", name);
+        category.put("description", name + " 기술 스택에 대한 간단한 설명");
+        return category;
+    }
+
+    /**
+     * Damage valid JSON the way model output usually is.
+     */
+    private static String malform(String json) {
+        switch (ThreadLocalRandom.current().nextInt(5)) {
+            case 0:
+                return "```json\n" + json + "\n```";
+            case 1:
+                return "Here is the result:\n" + json;
+            case 2:
+                // trailing comma before the closing bracket
+                int close = Math.max(json.lastIndexOf('}'), json.lastIndexOf(']'));
+                return json.substring(0, close) + "," + json.substring(close);
+            case 3:
+                // quotes inside a string value left unescaped
+                return json.replace("\\\"", "\"");
+            default:
+                // cut off mid-response
+                return json.substring(0, Math.max(1, json.length() * 3 / 4));
+        }
+    }
+
+    private List<String> chunks(String response) {
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < response.length(); start += chunkChars) {
+            chunks.add(response.substring(start, Math.min(response.length(), start + chunkChars)));
+        }
+        return chunks;
+    }
+}
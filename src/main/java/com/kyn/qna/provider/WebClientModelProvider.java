@@ -0,0 +1,127 @@
+package com.kyn.qna.provider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * ModelProvider calling the generateContent and streamGenerateContent REST endpoints
+ * with WebClient on Reactor Netty (gemini.provider=webclient).
+ *
+ * The client runs on the same Netty event loops as the WebFlux server (the global
+ * Reactor Netty resources), so responses are handled without any thread hop or
+ * blocked thread, and cancelling closes the HTTP/2 stream or connection right away.
+ * Connections come from a dedicated bounded pool.
+ */
+@Component
+@ConditionalOnProperty(name = "gemini.provider", havingValue = "webclient")
+@Slf4j
+public class WebClientModelProvider implements ModelProvider {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<JsonNode>> EVENT_TYPE = new ParameterizedTypeReference<>() {};
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    public WebClientModelProvider(ObjectMapper objectMapper,
+                                  @Value("${google.api.key}") String apiKey,
+                                  @Value("${gemini.webclient.base-url:https://generativelanguage.googleapis.com/v1beta}") String baseUrl,
+                                  @Value("${gemini.webclient.max-connections:200}") int maxConnections,
+                                  @Value("${gemini.webclient.pending-acquire-max:1000}") int pendingAcquireMax,
+                                  @Value("${gemini.webclient.pending-acquire-timeout:PT10S}") Duration pendingAcquireTimeout,
+                                  @Value("${gemini.webclient.max-idle-time:PT30S}") Duration maxIdleTime,
+                                  @Value("${gemini.webclient.response-timeout:PT120S}") Duration responseTimeout,
+                                  @Value("${gemini.webclient.http2:true}") boolean http2) {
+        this.connectionProvider = ConnectionProvider.builder("gemini")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMax)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .evictInBackground(maxIdleTime)
+            .metrics(true)
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            // h2 is negotiated with ALPN, servers without it get HTTP/1.1
+            .protocol(http2 ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11} : new HttpProtocol[] {HttpProtocol.HTTP11})
+            .secure()
+            .compress(true)
+            .responseTimeout(responseTimeout)
+            .metrics(true, uri -> "/models");
+
+        this.webClient = WebClient.builder()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .defaultHeader("x-goog-api-key", apiKey)
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024);
+            })
+            .build();
+        log.info("Using WebClient model provider for {} with up to {} connections", baseUrl, maxConnections);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    @Override
+    public Mono<String> generate(String model, String prompt) {
+        return webClient.post()
+            .uri("/models/{model}:generateContent", model)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request(prompt))
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .flatMap(response -> Mono.justOrEmpty(firstText(response)));
+    }
+
+    @Override
+    public Flux<String> generateStream(String model, String prompt) {
+        return webClient.post()
+            .uri("/models/{model}:streamGenerateContent?alt=sse", model)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request(prompt))
+            .retrieve()
+            .bodyToFlux(EVENT_TYPE)
+            .flatMap(event -> Mono.justOrEmpty(event.data()).mapNotNull(WebClientModelProvider::firstText));
+    }
+
+    private static Map<String, Object> request(String prompt) {
+        return Map.of(
+            "contents", List.of(Map.of(
+                "role", "user",
+                "parts", List.of(Map.of("text", prompt)))),
+            "generationConfig", Map.of("responseMimeType", "text/plain"));
+    }
+
+    private static String firstText(JsonNode response) {
+        JsonNode text = response.path("candidates").path(0).path("content").path("parts").path(0).path("text");
+        return text.isTextual() ? text.asText() : null;
+    }
+}
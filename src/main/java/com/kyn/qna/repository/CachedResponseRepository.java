@@ -0,0 +1,10 @@
+package com.kyn.qna.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.kyn.qna.entity.CachedResponse;
+
+@Repository
+public interface CachedResponseRepository extends ReactiveMongoRepository<CachedResponse, String> {
+}
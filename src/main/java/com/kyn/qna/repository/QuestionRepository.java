@@ -1,5 +1,6 @@
 package com.kyn.qna.repository;
 
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -29,6 +30,12 @@ public interface QuestionRepository extends ReactiveMongoRepository<Question, St
     
     
     Mono<Long> countByCategory(String category);
+
+    @Aggregation(pipeline = {
+        "{ $match: { category: ?0, expYears: ?1, question: { $ne: null } } }",
+        "{ $sample: { size: 1 } }"
+    })
+    Mono<Question> findRandomByCategoryAndExpYears(String category, int expYears);
         
 
 } 
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.kyn.qna.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import reactor.core.publisher.Flux;
@@ -8,4 +10,9 @@ import com.kyn.qna.entity.SimplifiedQuestion;
 
 public interface SimplifiedQuestionRepository extends ReactiveMongoRepository<SimplifiedQuestion, String> {
     Flux<SimplifiedQuestion> findByCategory(String category);
+
+    @Query(value = "{ 'category': ?0 }",
+           fields = "{ 'question': 1, 'simplifiedDetail': 1, 'expYears': 1, 'createdAt': 1 }",
+           sort = "{ 'createdAt': -1 }")
+    Flux<SimplifiedQuestion> findHistoryByCategory(String category, Pageable pageable);
 }
@@ -0,0 +1,333 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.dto.ModelPriority;
+import com.kyn.qna.exception.ModelOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * AIMD concurrency limiter for upstream model calls.
+ * The limit grows by one per window of fast successful calls and shrinks
+ * multiplicatively on slow calls or provider throttling. A call cancelled after
+ * holding its permit longer than the latency target (e.g. by the attempt timeout,
+ * which is applied outside the limiter) counts as slow. Calls over the limit
+ * wait in a bounded queue and are rejected with 503 when it is full or the
+ * wait takes too long.
+ *
+ * Calls are scheduled in two lanes. Background calls only start while no
+ * interactive call is waiting and stay under a share of the limit, so a burst
+ * of interactive calls finds free slots. A background call that has waited
+ * longer than the aging threshold is served ahead of interactive calls so the
+ * background lane cannot starve.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final double backgroundShare;
+    private final long agingThresholdNanos;
+
+    private final Lane interactive;
+    private final Lane background;
+    private double limit;
+    private int inFlight;
+    private int backgroundInFlight;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${gemini.limiter.initial-limit:8}") int initialLimit,
+                                      @Value("${gemini.limiter.min-limit:1}") int minLimit,
+                                      @Value("${gemini.limiter.max-limit:64}") int maxLimit,
+                                      @Value("${gemini.limiter.max-queue:100}") int maxQueue,
+                                      @Value("${gemini.limiter.max-wait:PT10S}") Duration maxWait,
+                                      @Value("${gemini.limiter.background.max-queue:500}") int backgroundMaxQueue,
+                                      @Value("${gemini.limiter.background.max-wait:PT2M}") Duration backgroundMaxWait,
+                                      @Value("${gemini.limiter.background.share:0.5}") double backgroundShare,
+                                      @Value("${gemini.limiter.background.aging-threshold:PT30S}") Duration agingThreshold,
+                                      @Value("${gemini.limiter.latency-target:PT15S}") Duration latencyTarget,
+                                      @Value("${gemini.limiter.backoff-ratio:0.9}") double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.backgroundShare = backgroundShare;
+        this.agingThresholdNanos = agingThreshold.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.interactive = new Lane(ModelPriority.INTERACTIVE, maxQueue, maxWait, meterRegistry);
+        this.background = new Lane(ModelPriority.BACKGROUND, backgroundMaxQueue, backgroundMaxWait, meterRegistry);
+
+        Gauge.builder("gemini.limiter.limit", this, limiter -> limiter.currentLimit()).register(meterRegistry);
+        Gauge.builder("gemini.limiter.inflight", this, limiter -> limiter.inFlight()).register(meterRegistry);
+    }
+
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return run(ModelPriority.INTERACTIVE, call);
+    }
+
+    public <T> Mono<T> run(ModelPriority priority, Supplier<Mono<T>> call) {
+        return Mono.usingWhen(acquire(lane(priority)),
+            permit -> Mono.defer(call),
+            permit -> Mono.fromRunnable(permit::success),
+            (permit, error) -> Mono.fromRunnable(() -> permit.failure(error)),
+            permit -> Mono.fromRunnable(permit::cancel));
+    }
+
+    public <T> Flux<T> runMany(ModelPriority priority, Supplier<Flux<T>> call) {
+        return Flux.usingWhen(acquire(lane(priority)),
+            permit -> Flux.defer(call),
+            permit -> Mono.fromRunnable(permit::success),
+            (permit, error) -> Mono.fromRunnable(() -> permit.failure(error)),
+            permit -> Mono.fromRunnable(permit::cancel));
+    }
+
+    public synchronized double currentLimit() {
+        return limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queueDepth(ModelPriority priority) {
+        return lane(priority).queue.size();
+    }
+
+    private Lane lane(ModelPriority priority) {
+        return priority == ModelPriority.BACKGROUND ? background : interactive;
+    }
+
+    private Mono<Permit> acquire(Lane lane) {
+        return Mono.<Permit>create(sink -> {
+            Permit permit = null;
+            boolean queueFull = false;
+            synchronized (this) {
+                if (lane.queue.isEmpty() && canStart(lane)) {
+                    permit = start(lane);
+                } else if (lane.queue.size() >= lane.maxQueue) {
+                    lane.rejectedQueueFull.increment();
+                    queueFull = true;
+                } else {
+                    Waiter waiter = new Waiter(sink);
+                    lane.queue.addLast(waiter);
+                    waiter.timer = Schedulers.parallel()
+                        .schedule(() -> expire(lane, waiter), lane.maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                    sink.onCancel(() -> abandon(lane, waiter));
+                }
+            }
+            // sinks are completed outside the monitor: subscribers run on this thread and may call back into the limiter
+            if (permit != null) {
+                sink.success(permit);
+            } else if (queueFull) {
+                sink.error(new ModelOverloadedException("Model call queue is full"));
+            }
+        })
+        // a permit granted to a subscriber that already went away goes back to the pool
+        .doOnDiscard(Permit.class, Permit::cancel);
+    }
+
+    private boolean canStart(Lane lane) {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        if (lane == interactive) {
+            return true;
+        }
+        return interactive.queue.isEmpty() && backgroundInFlight < backgroundCap();
+    }
+
+    private int backgroundCap() {
+        return Math.max(1, (int) (limit * backgroundShare));
+    }
+
+    private Permit start(Lane lane) {
+        inFlight++;
+        if (lane == background) {
+            backgroundInFlight++;
+        }
+        return new Permit(lane);
+    }
+
+    private void expire(Lane lane, Waiter waiter) {
+        synchronized (this) {
+            if (!lane.queue.remove(waiter)) {
+                return;
+            }
+            lane.rejectedTimeout.increment();
+        }
+        waiter.sink.error(new ModelOverloadedException("Timed out waiting for model capacity"));
+    }
+
+    private synchronized void abandon(Lane lane, Waiter waiter) {
+        if (lane.queue.remove(waiter)) {
+            waiter.timer.dispose();
+        }
+    }
+
+    private void release(Lane lane, long latencyNanos, Outcome outcome) {
+        List<Grant> grants;
+        synchronized (this) {
+            inFlight--;
+            if (lane == background) {
+                backgroundInFlight--;
+            }
+            switch (outcome) {
+                case SUCCESS -> {
+                    if (latencyNanos <= latencyTargetNanos) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    } else {
+                        limit = Math.max(minLimit, limit * backoffRatio);
+                    }
+                }
+                case OVERLOAD -> {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    log.warn("Model provider overloaded, concurrency limit reduced to {}", (int) limit);
+                }
+                case IGNORE -> { }
+            }
+            grants = dispatch();
+        }
+        // the granted calls start in the waiters' subscribers, outside the monitor
+        grants.forEach(grant -> grant.waiter().sink.success(grant.permit()));
+    }
+
+    /**
+     * Take the waiters that can start now, called while holding the monitor.
+     */
+    private List<Grant> dispatch() {
+        List<Grant> grants = new ArrayList<>();
+        while (inFlight < (int) limit) {
+            Lane next = nextLane();
+            if (next == null) {
+                break;
+            }
+            Waiter waiter = next.queue.pollFirst();
+            waiter.timer.dispose();
+            grants.add(new Grant(waiter, start(next)));
+        }
+        return grants;
+    }
+
+    private Lane nextLane() {
+        Waiter oldestBackground = background.queue.peekFirst();
+        if (oldestBackground != null && System.nanoTime() - oldestBackground.enqueuedNanos >= agingThresholdNanos) {
+            return background;
+        }
+        if (!interactive.queue.isEmpty()) {
+            return interactive;
+        }
+        if (oldestBackground != null && backgroundInFlight < backgroundCap()) {
+            return background;
+        }
+        return null;
+    }
+
+    static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && (message.contains("429") || message.contains("RESOURCE_EXHAUSTED")
+                    || message.contains("503") || message.contains("UNAVAILABLE"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum Outcome { SUCCESS, OVERLOAD, IGNORE }
+
+    private record Grant(Waiter waiter, Permit permit) {}
+
+    private final class Lane {
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private final int maxQueue;
+        private final Duration maxWait;
+        private final Counter rejectedQueueFull;
+        private final Counter rejectedTimeout;
+
+        private Lane(ModelPriority priority, int maxQueue, Duration maxWait, MeterRegistry meterRegistry) {
+            String lane = priority.name().toLowerCase();
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+            this.rejectedQueueFull = Counter.builder("gemini.limiter.rejected")
+                .tag("lane", lane)
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+            this.rejectedTimeout = Counter.builder("gemini.limiter.rejected")
+                .tag("lane", lane)
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+            Gauge.builder("gemini.limiter.queue", this, l -> l.depth())
+                .tag("lane", lane)
+                .register(meterRegistry);
+        }
+
+        private int depth() {
+            synchronized (AdaptiveConcurrencyLimiter.this) {
+                return queue.size();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final long enqueuedNanos = System.nanoTime();
+        private Disposable timer;
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final class Permit {
+        private final Lane lane;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        void success() {
+            complete(Outcome.SUCCESS);
+        }
+
+        void failure(Throwable error) {
+            complete(isOverload(error) ? Outcome.OVERLOAD : Outcome.IGNORE);
+        }
+
+        void cancel() {
+            complete(System.nanoTime() - startNanos > latencyTargetNanos ? Outcome.OVERLOAD : Outcome.IGNORE);
+        }
+
+        private void complete(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                release(lane, System.nanoTime() - startNanos, outcome);
+            }
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.kyn.qna.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kyn.qna.config.ModelCallPolicyProperties;
+import com.kyn.qna.dto.CategoryManageResult;
+import com.kyn.qna.dto.CategoryManageResult.Outcome;
 import com.kyn.qna.dto.CategoryRequest;
 import com.kyn.qna.dto.CategoryResult;
+import com.kyn.qna.dto.GenerationOptions;
+import com.kyn.qna.dto.ModelCallPolicy;
+import com.kyn.qna.dto.ModelPriority;
+import com.kyn.qna.dto.ModelTask;
 import com.kyn.qna.entity.Category;
+import com.kyn.qna.util.JsonCodecs;
 import com.kyn.qna.util.JsonStringUtil;
+import com.kyn.qna.util.PromptTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
@@ -18,12 +34,25 @@ import reactor.core.publisher.Mono;
 public class CategoryManageService {
     private final CategoryService categoryService;
     private final GeminiService geminiService;
-    private final ObjectMapper objectMapper;
+    private final JsonCodecs jsonCodecs;
+    private final GenerationOptions categoryManageOptions;
+    private final GenerationOptions allCategoriesManageOptions;
 
-    public CategoryManageService(CategoryService categoryService, GeminiService geminiService, ObjectMapper objectMapper) {
+    public CategoryManageService(CategoryService categoryService, GeminiService geminiService, JsonCodecs jsonCodecs,
+                                 ModelCallPolicyProperties policies,
+                                 @Value("${gemini.cache.category-manage-ttl:PT24H}") Duration categoryManageCacheTtl) {
         this.categoryService = categoryService;
         this.geminiService = geminiService;
-        this.objectMapper = objectMapper;
+        this.jsonCodecs = jsonCodecs;
+        this.categoryManageOptions = GenerationOptions.builder()
+            .cacheTtl(categoryManageCacheTtl)
+            .task(ModelTask.CATEGORY_MANAGE)
+            .policy(policies.policy("category-manage", ModelCallPolicy.DEFAULT))
+            .build();
+        this.allCategoriesManageOptions = categoryManageOptions.toBuilder()
+            .priority(ModelPriority.BACKGROUND)
+            .policy(policies.policy("category-manage-all", ModelCallPolicy.BACKGROUND))
+            .build();
     }
 
     public Mono<Category> manageSingleCategory(String name){
@@ -32,77 +61,112 @@ public class CategoryManageService {
         return categoryService.findByName(name)
             .flatMap(category -> 
                 geminiService.generateResponse(
-                    singleCategoryManagePrompt
-                    .replace("{category_name}", category.getName())
-                    .replace("{category_description}", category.getDescription()))
-                .flatMap(response -> parseAndProcessResponse(response, category))
+                    singleCategoryManagePrompt.render(category.getName(), category.getDescription()),
+                    categoryManageOptions, this::parseCategoryResponse)
+                .flatMap(result -> processResult(result, category))
+                .defaultIfEmpty(category)
             )
             .doOnSuccess(result -> log.info("Category management completed for: {}", name))
             .doOnError(error -> log.error("Error managing category: {}", name, error));
     }
 
-    public Flux<Category> manageAllCategories(){
+    /**
+     * Review all categories with one model call and apply the changes with one bulk write.
+     * The model results are compared with a snapshot read once up front; results for unknown
+     * names, or for categories deleted before the write, are reported as NOT_FOUND, unchanged
+     * descriptions are not written.
+     */
+    public Flux<CategoryManageResult> manageAllCategories(){
         log.info("Managing all categories");
         
         return categoryService.findAll()
-            .collectList()
-            .flatMap(categories -> geminiService
-                .generateResponse(multiCategoryManagePrompt
-                    .replace("{category_data}", categories.toString())))
-            .flatMapMany(this::parseAllCategoriesResponse)
-            .flatMap(categoryResult ->
-                categoryService.findByName(categoryResult.getName())
-                .flatMap(category -> {
-                    if(categoryResult.isShouldUpdate()){
-                        return categoryService.update(CategoryRequest.builder()
-                            .name(categoryResult.getName())
-                            .description(categoryResult.getDescription())
-                            .build());
-                    } else {
-                        return Mono.just(category);
-                    }
-                })
-            )
+            .collectMap(Category::getName, category -> category, LinkedHashMap::new)
+            .flatMapMany(snapshot -> geminiService
+                .generateResponse(multiCategoryManagePrompt.render(new ArrayList<>(snapshot.values())),
+                    allCategoriesManageOptions, this::parseAllCategoriesResponse)
+                .flatMapMany(results -> applyChanges(snapshot, results)))
             .doOnComplete(() -> log.info("All categories management completed"))
             .doOnError(error -> log.error("Error managing all categories", error));
     }
 
-    private Mono<Category> parseAndProcessResponse(String jsonResponse, Category originalCategory) {
-        try {
-            //extract Json from Response
-            String cleanJson = JsonStringUtil.extractJsonFromResponse(jsonResponse);            
-            CategoryResult result = objectMapper.readValue(cleanJson, CategoryResult.class);
-            
-            if (result.isShouldUpdate()) {                
-                return categoryService.update(CategoryRequest.builder()
-                    .name(result.getName())
+    private Flux<CategoryManageResult> applyChanges(Map<String, Category> snapshot, List<CategoryResult> results) {
+        // one result per name, the last one wins
+        Map<String, CategoryResult> resultsByName = new LinkedHashMap<>();
+        results.stream()
+            .filter(result -> result != null && result.getName() != null)
+            .forEach(result -> resultsByName.put(result.getName(), result));
+
+        List<CategoryManageResult> outcomes = new ArrayList<>();
+        List<CategoryRequest> changes = new ArrayList<>();
+        resultsByName.values().forEach(result -> {
+            Category current = snapshot.get(result.getName());
+            if (current == null) {
+                outcomes.add(CategoryManageResult.of(result.getName(), Outcome.NOT_FOUND, null));
+            } else if (!result.isShouldUpdate() || result.getDescription() == null || result.getDescription().isBlank()
+                || result.getDescription().equals(current.getDescription())) {
+                outcomes.add(CategoryManageResult.of(current.getName(), Outcome.UNCHANGED, current.getDescription()));
+            } else {
+                changes.add(CategoryRequest.builder()
+                    .name(current.getName())
                     .description(result.getDescription())
                     .build());
-            } else {
-                return Mono.just(originalCategory);
             }
-            
+        });
+        log.info("Category review: {} of {} categories changed, {} results for unknown categories",
+            changes.size(), snapshot.size(), outcomes.stream().filter(outcome -> outcome.outcome() == Outcome.NOT_FOUND).count());
+
+        return categoryService.updateDescriptions(changes)
+            .flatMapMany(updates -> {
+                changes.forEach(change -> {
+                    String error = updates.failures().get(change.name());
+                    if (error != null) {
+                        outcomes.add(CategoryManageResult.failed(change.name(), snapshot.get(change.name()).getDescription(), error));
+                    } else if (updates.notFound().contains(change.name())) {
+                        // deleted after the snapshot was read
+                        outcomes.add(CategoryManageResult.of(change.name(), Outcome.NOT_FOUND, null));
+                    } else {
+                        outcomes.add(CategoryManageResult.of(change.name(), Outcome.UPDATED, change.description()));
+                    }
+                });
+                return Flux.fromIterable(outcomes);
+            });
+    }
+
+    private Mono<Category> processResult(CategoryResult result, Category originalCategory) {
+        if (result.isShouldUpdate()) {
+            return categoryService.update(CategoryRequest.builder()
+                .name(result.getName())
+                .description(result.getDescription())
+                .build());
+        }
+        return Mono.just(originalCategory);
+    }
+
+    /**
+     * null when the response does not parse, so that it is not cached
+     */
+    private CategoryResult parseCategoryResponse(String jsonResponse) {
+        try {
+            //extract Json from Response
+            String cleanJson = JsonStringUtil.extractJsonFromResponse(jsonResponse);
+            return jsonCodecs.read(cleanJson, CategoryResult.class);
         } catch (JsonProcessingException e) {
             log.error("Failed to parse JSON response: {}", jsonResponse, e);
-            return Mono.just(originalCategory);
+            return null;
         }
     }
 
-
-
-    private Flux<CategoryResult> parseAllCategoriesResponse(String jsonResponse) {
+    private List<CategoryResult> parseAllCategoriesResponse(String jsonResponse) {
         try {
             String cleanJson = JsonStringUtil.extractJsonFromResponse(jsonResponse);
-            CategoryResult[] results = objectMapper.readValue(cleanJson, CategoryResult[].class);            
-            return Flux.fromArray(results);
-            
+            return Arrays.asList(jsonCodecs.read(cleanJson, CategoryResult[].class));
         } catch (JsonProcessingException e) {
             log.error("Failed to parse JSON response for all categories: {}", jsonResponse, e);
-            return Flux.error(new RuntimeException("Failed to parse response from AI: " + e.getMessage()));
+            throw new IllegalStateException("Failed to parse response from AI: " + e.getMessage(), e);
         }
     }
 
-    private String singleCategoryManagePrompt = """
+    private final PromptTemplate singleCategoryManagePrompt = PromptTemplate.compile("""
                 You are a category manager.
                 The given data is a category for development stack.
                 name and description in the above categories are the technical names and their descriptions, respectively.
@@ -123,9 +187,9 @@ public class CategoryManageService {
                 =======================
                 "name": "{category_name}",
                 "description": "{category_description}"
-            """;
+            """, "category_name", "category_description");
 
-    private String multiCategoryManagePrompt = """
+    private final PromptTemplate multiCategoryManagePrompt = PromptTemplate.compile("""
                 You are a category manager.
                 The given data is a category for development stack.
                 name and description in the above categories are the technical names and their descriptions, respectively.
@@ -143,5 +207,5 @@ public class CategoryManageService {
 
                 =======================
                 {category_data}
-            """;
+            """, "category_data");
 }
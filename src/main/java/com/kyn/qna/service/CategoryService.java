@@ -1,12 +1,26 @@
 package com.kyn.qna.service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.kyn.qna.dto.CategoryRequest;
 import com.kyn.qna.entity.Category;
-import com.kyn.qna.mapper.EntityDtoMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.kyn.qna.repository.CategoryRepository;
 
 import reactor.core.publisher.Flux;
@@ -16,9 +30,11 @@ import reactor.core.publisher.Mono;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ReactiveMongoTemplate mongoTemplate) {
         this.categoryRepository = categoryRepository;
+        this.mongoTemplate = mongoTemplate;
     }
     
 
@@ -30,10 +46,18 @@ public class CategoryService {
         return categoryRepository.findByName(name);
     }
 
+    /**
+     * Insert the category unless one with the same name exists, in one round trip (upsert).
+     * Returns the existing or the inserted category.
+     */
     public Mono<Category> save(CategoryRequest categoryRequest) {
-        var category = EntityDtoMapper.toCategory(categoryRequest);
-        return categoryRepository.findByName(category.getName())
-            .switchIfEmpty(categoryRepository.save(category));
+        LocalDateTime now = LocalDateTime.now();
+        Update insert = new Update()
+            .setOnInsert("description", categoryRequest.description())
+            .setOnInsert("createdAt", now)
+            .setOnInsert("updatedAt", now);
+        return mongoTemplate.findAndModify(byName(categoryRequest.name()), insert,
+            FindAndModifyOptions.options().upsert(true).returnNew(true), Category.class);
     }
 
     public Mono<Void> delete(String id) {
@@ -41,13 +65,70 @@ public class CategoryService {
     }
 
     public Mono<Category> update(CategoryRequest categoryRequest) {
-        var category = EntityDtoMapper.toCategory(categoryRequest);
-        return categoryRepository.findByName(category.getName())
-            .flatMap(existingCategory -> {
-                existingCategory.setDescription(category.getDescription());
-                existingCategory.setUpdatedAt(LocalDateTime.now());
-                return categoryRepository.save(existingCategory);
-            });
+        Update update = new Update()
+            .set("description", categoryRequest.description())
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(byName(categoryRequest.name()), update,
+            FindAndModifyOptions.options().returnNew(true), Category.class);
+    }
+
+    /**
+     * Outcome of updateDescriptions: names that matched no category (deleted in the meantime)
+     * and failed writes as name to error message.
+     */
+    public record DescriptionUpdates(Set<String> notFound, Map<String, String> failures) {}
+
+    /**
+     * Set the descriptions of several categories with one unordered bulk write.
+     * Names that no longer exist are found from the matched count, with one extra query only when
+     * it is short.
+     */
+    public Mono<DescriptionUpdates> updateDescriptions(List<CategoryRequest> categoryRequests) {
+        if (categoryRequests.isEmpty()) {
+            return Mono.just(new DescriptionUpdates(Set.of(), Map.of()));
+        }
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Category.class);
+            categoryRequests.forEach(request -> bulk.updateOne(byName(request.name()), new Update()
+                .set("description", request.description())
+                .set("updatedAt", now)));
+            return bulk.execute()
+                .flatMap(result -> withNotFound(categoryRequests, result.getMatchedCount(), Map.of()))
+                // unordered: the other writes are applied, the errors carry the index of the failed ones
+                .onErrorResume(BulkOperationException.class, error -> withNotFound(categoryRequests,
+                    error.getResult().getMatchedCount(), failures(categoryRequests, error.getErrors())))
+                .onErrorResume(MongoBulkWriteException.class, error -> withNotFound(categoryRequests,
+                    error.getWriteResult().getMatchedCount(), failures(categoryRequests, error.getWriteErrors())));
+        });
+    }
+
+    private Mono<DescriptionUpdates> withNotFound(List<CategoryRequest> categoryRequests, int matched,
+                                                  Map<String, String> failures) {
+        List<String> written = categoryRequests.stream()
+            .map(CategoryRequest::name)
+            .filter(name -> !failures.containsKey(name))
+            .toList();
+        if (matched >= written.size()) {
+            return Mono.just(new DescriptionUpdates(Set.of(), failures));
+        }
+        Query existing = Query.query(Criteria.where("name").in(written));
+        existing.fields().include("name");
+        return mongoTemplate.find(existing, Category.class)
+            .map(Category::getName)
+            .collect(Collectors.toSet())
+            .map(found -> new DescriptionUpdates(written.stream()
+                .filter(name -> !found.contains(name))
+                .collect(Collectors.toSet()), failures));
+    }
+
+    private static Map<String, String> failures(List<CategoryRequest> categoryRequests, List<BulkWriteError> errors) {
+        Map<String, String> failures = new HashMap<>();
+        errors.forEach(error -> failures.put(categoryRequests.get(error.getIndex()).name(), error.getMessage()));
+        return failures;
+    }
+
+    private static Query byName(String name) {
+        return Query.query(Criteria.where("name").is(name));
     }
-    
 }
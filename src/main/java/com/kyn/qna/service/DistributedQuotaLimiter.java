@@ -0,0 +1,214 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.dto.ModelTask;
+import com.kyn.qna.exception.ModelOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cluster wide token bucket for model requests (and optionally prompt tokens), shared
+ * by all instances through a document per bucket in the modelQuota collection.
+ *
+ * Refill and reservation happen in one findAndModify with an update pipeline, using the
+ * server's clock, so there is no read-modify-write race between nodes. To keep round
+ * trips down a node reserves up to batch-size at once and spends it locally; a local
+ * reservation that is not used within local-ttl is dropped, so an idle node does not
+ * hold back quota for long. Calls wait for refill up to max-wait and are then rejected with 503.
+ *
+ * Disabled by default (gemini.quota.enabled). A call costs gemini.quota.weight.[task]
+ * requests (1 by default, task in lower case and '-' for '_').
+ */
+@Component
+@Slf4j
+public class DistributedQuotaLimiter {
+
+    private static final String COLLECTION = "modelQuota";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final long localTtlNanos;
+    private final double charsPerToken;
+    private final Bucket requests;
+    private final Bucket tokens;
+    private final Map<ModelTask, Double> weights = new EnumMap<>(ModelTask.class);
+
+    private final Counter reservations;
+    private final Counter rejected;
+    private final Timer waits;
+
+    public DistributedQuotaLimiter(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry, Environment environment,
+                                   @Value("${gemini.quota.enabled:false}") boolean enabled,
+                                   @Value("${gemini.quota.requests-per-minute:60}") double requestsPerMinute,
+                                   @Value("${gemini.quota.batch-size:5}") double batchSize,
+                                   @Value("${gemini.quota.tokens-per-minute:0}") double tokensPerMinute,
+                                   @Value("${gemini.quota.token-batch-size:5000}") double tokenBatchSize,
+                                   @Value("${gemini.quota.chars-per-token:3.0}") double charsPerToken,
+                                   @Value("${gemini.quota.local-ttl:PT5S}") Duration localTtl,
+                                   @Value("${gemini.quota.max-wait:PT10S}") Duration maxWait) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.localTtlNanos = localTtl.toNanos();
+        this.charsPerToken = charsPerToken;
+        this.requests = new Bucket("requests", requestsPerMinute, batchSize);
+        this.tokens = tokensPerMinute > 0 ? new Bucket("tokens", tokensPerMinute, tokenBatchSize) : null;
+        for (ModelTask task : ModelTask.values()) {
+            String key = "gemini.quota.weight." + task.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            weights.put(task, environment.getProperty(key, Double.class, 1.0));
+        }
+
+        this.reservations = Counter.builder("gemini.quota.reservations").register(meterRegistry);
+        this.rejected = Counter.builder("gemini.quota.rejected").register(meterRegistry);
+        this.waits = Timer.builder("gemini.quota.wait")
+            .description("Time spent waiting for cluster quota")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Completes once quota for the call is reserved, or fails with ModelOverloadedException after max-wait.
+     */
+    public Mono<Void> acquire(ModelTask task, String prompt) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long deadline = start + maxWaitNanos;
+            Mono<Void> acquired = requests.take(weights.get(task), deadline);
+            if (tokens != null) {
+                acquired = acquired.then(tokens.take(Math.ceil(prompt.length() / charsPerToken), deadline));
+            }
+            return acquired.doOnSuccess(done -> {
+                long waited = System.nanoTime() - start;
+                if (waited > 1_000_000) {
+                    waits.record(Duration.ofNanos(waited));
+                }
+            });
+        });
+    }
+
+    private final class Bucket {
+        private final String id;
+        private final double capacity;
+        private final double ratePerMilli;
+        private final double batchSize;
+
+        private double local;
+        private long localExpiresAt;
+        private Mono<Double> pending;
+
+        private Bucket(String id, double perMinute, double batchSize) {
+            this.id = id;
+            this.capacity = perMinute;
+            this.ratePerMilli = perMinute / 60_000;
+            this.batchSize = batchSize;
+        }
+
+        private Mono<Void> take(double cost, long deadline) {
+            return Mono.defer(() -> {
+                Mono<Double> reservation;
+                synchronized (this) {
+                    if (System.nanoTime() - localExpiresAt > 0) {
+                        local = 0;
+                    }
+                    if (local >= cost) {
+                        local -= cost;
+                        return Mono.empty();
+                    }
+                    // one reservation round trip per node at a time, concurrent callers join it
+                    if (pending == null) {
+                        AtomicReference<Mono<Double>> self = new AtomicReference<>();
+                        pending = reserve(cost).doFinally(signal -> clearPending(self.get())).cache();
+                        self.set(pending);
+                    }
+                    reservation = pending;
+                }
+                return reservation.flatMap(waitMillis -> {
+                    if (waitMillis <= 0) {
+                        return take(cost, deadline);
+                    }
+                    if (System.nanoTime() + waitMillis * 1_000_000 - deadline > 0) {
+                        rejected.increment();
+                        return Mono.error(new ModelOverloadedException("Model quota exhausted, retry later"));
+                    }
+                    return Mono.delay(Duration.ofMillis((long) Math.ceil(waitMillis))).then(take(cost, deadline));
+                });
+            });
+        }
+
+        private synchronized void clearPending(Mono<Double> reservation) {
+            if (pending == reservation) {
+                pending = null;
+            }
+        }
+
+        /**
+         * Refill the shared bucket and move up to batch-size (at least cost) into the local balance.
+         * Emits 0 when something was granted, otherwise the time until the bucket holds cost.
+         */
+        private Mono<Double> reserve(double cost) {
+            double want = Math.max(cost, batchSize);
+            Document refill = new Document("$set", new Document()
+                .append("tokens", new Document("$min", List.of(capacity, new Document("$add", List.of(
+                    new Document("$ifNull", List.of("$tokens", capacity)),
+                    new Document("$multiply", List.of(
+                        new Document("$subtract", List.of("$$NOW", new Document("$ifNull", List.of("$updatedAt", "$$NOW")))),
+                        ratePerMilli)))))))
+                .append("updatedAt", "$$NOW"));
+            Document grant = new Document("$set", new Document("granted", new Document("$cond", List.of(
+                new Document("$gte", List.of("$tokens", cost)),
+                new Document("$min", List.of("$tokens", want)),
+                0))));
+            Document spend = new Document("$set", new Document("tokens",
+                new Document("$subtract", List.of("$tokens", "$granted"))));
+            AggregationUpdate update = AggregationUpdate.from(List.of(stage(refill), stage(grant), stage(spend)));
+
+            return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION)
+                .map(result -> {
+                    double granted = ((Number) result.get("granted")).doubleValue();
+                    double available = ((Number) result.get("tokens")).doubleValue();
+                    if (granted <= 0) {
+                        return (cost - available) / ratePerMilli;
+                    }
+                    reservations.increment();
+                    synchronized (this) {
+                        if (System.nanoTime() - localExpiresAt > 0) {
+                            local = 0;
+                        }
+                        local += granted;
+                        localExpiresAt = System.nanoTime() + localTtlNanos;
+                    }
+                    log.debug("Reserved {} of quota bucket {}, {} left", granted, id, available);
+                    return 0.0;
+                });
+        }
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+}
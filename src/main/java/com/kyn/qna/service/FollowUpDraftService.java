@@ -0,0 +1,176 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.kyn.qna.dto.AdditionalQuestion;
+import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.entity.FollowUpDraft;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Speculatively generated follow-up content, linked to the question id.
+ *
+ * A draft is only served for the same inputs it was generated from (see inputHash) and
+ * is removed when served. A speculation that is still running is joined instead of
+ * starting a second model call. Drafts that are replaced, requested with other inputs
+ * or never requested (TTL) are wasted speculative work.
+ */
+@Service
+@Slf4j
+public class FollowUpDraftService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    private final Map<String, Speculation> inFlight = new ConcurrentHashMap<>();
+    private final Counter speculated;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter wasted;
+
+    public FollowUpDraftService(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                @Value("${qna.speculative-follow-up.enabled:false}") boolean enabled,
+                                @Value("${qna.speculative-follow-up.ttl:PT30M}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.speculated = Counter.builder("followup.speculative").tag("result", "generated").register(meterRegistry);
+        this.hits = Counter.builder("followup.speculative").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("followup.speculative").tag("result", "miss").register(meterRegistry);
+        // drafts expiring unused through the TTL index are generated - hit - wasted
+        this.wasted = Counter.builder("followup.speculative").tag("result", "wasted").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.indexOps(FollowUpDraft.class)
+            .createIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO))
+            .subscribe(
+                name -> log.info("Follow-up draft index ready"),
+                error -> log.error("Failed to create follow-up draft index: {}", error.getMessage())
+            );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hash of the inputs the follow-up content depends on, including the additional questions
+     * already asked; no additional questions and an empty list hash the same.
+     */
+    public static String inputHash(QuestionRequest request) {
+        StringBuilder inputs = new StringBuilder()
+            .append(request.question()).append('\u0000')
+            .append(request.userAnswer()).append('\u0000')
+            .append(request.modelAnswer()).append('\u0000')
+            .append(request.score());
+        if (request.additionalQuestions() != null) {
+            for (AdditionalQuestion additionalQuestion : request.additionalQuestions()) {
+                inputs.append('\u0000');
+                if (additionalQuestion != null) {
+                    inputs.append(additionalQuestion.getQuestion()).append('\u0001').append(additionalQuestion.getAnswer());
+                }
+            }
+        }
+        return PromptCoalescer.hash(inputs.toString());
+    }
+
+    /**
+     * Start generating a draft in the background; the result is kept for ttl.
+     */
+    public void speculate(String questionId, String inputHash, Supplier<Mono<List<AdditionalQuestion>>> generate) {
+        if (!enabled || questionId == null) {
+            return;
+        }
+        AtomicBoolean consumed = new AtomicBoolean();
+        Mono<List<AdditionalQuestion>> shared = Mono.defer(generate)
+            .filter(list -> !list.isEmpty())
+            .cache();
+        Speculation speculation = new Speculation(inputHash, shared, consumed);
+        inFlight.put(questionId, speculation);
+
+        shared
+            .flatMap(list -> {
+                speculated.increment();
+                // joined by a request while running, nothing left to store
+                return consumed.get() ? Mono.empty() : save(questionId, inputHash, list);
+            })
+            .doFinally(signal -> inFlight.remove(questionId, speculation))
+            .subscribe(
+                draft -> log.debug("Follow-up draft stored for question {}", questionId),
+                error -> log.warn("Speculative follow-up for question {} failed: {}", questionId, error.getMessage())
+            );
+    }
+
+    /**
+     * Take the draft for the question if it was generated for the same inputs, waiting for a running speculation.
+     */
+    public Mono<List<AdditionalQuestion>> take(String questionId, String inputHash) {
+        if (!enabled || questionId == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            Speculation running = inFlight.get(questionId);
+            if (running != null && running.inputHash().equals(inputHash) && running.consumed().compareAndSet(false, true)) {
+                return running.result()
+                    .onErrorResume(error -> Mono.empty())
+                    .doOnNext(list -> hits.increment());
+            }
+            Instant now = Instant.now();
+            return mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(questionId)), FollowUpDraft.class)
+                .flatMap(draft -> {
+                    if (!inputHash.equals(draft.getInputHash()) || draft.getExpiresAt().isBefore(now)) {
+                        wasted.increment();
+                        return Mono.empty();
+                    }
+                    hits.increment();
+                    return Mono.just(draft.getAdditionalQuestions());
+                });
+        })
+        .switchIfEmpty(Mono.fromRunnable(misses::increment));
+    }
+
+    private Mono<FollowUpDraft> save(String questionId, String inputHash, List<AdditionalQuestion> additionalQuestions) {
+        Instant now = Instant.now();
+        FollowUpDraft draft = FollowUpDraft.builder()
+            ._id(questionId)
+            .inputHash(inputHash)
+            .additionalQuestions(additionalQuestions)
+            .createdAt(now)
+            .expiresAt(now.plus(ttl))
+            .build();
+        return mongoTemplate.findAndReplace(Query.query(Criteria.where("_id").is(questionId)), draft,
+                FindAndReplaceOptions.options().upsert())
+            // the replaced draft was never served
+            .doOnNext(previous -> wasted.increment())
+            .thenReturn(draft);
+    }
+
+    private record Speculation(String inputHash, Mono<List<AdditionalQuestion>> result, AtomicBoolean consumed) {}
+}
@@ -1,16 +1,20 @@
 package com.kyn.qna.service;
-import java.util.List;
-import java.util.Optional;
+import java.util.function.Function;
 
 import org.springframework.stereotype.Service;
 
-import com.google.common.collect.ImmutableList;
-import com.google.genai.Client;
-import com.google.genai.types.Content;
-import com.google.genai.types.GenerateContentConfig;
-import com.google.genai.types.GenerateContentResponse;
-import com.google.genai.types.Part;
+import com.kyn.qna.config.ModelCallPolicyProperties;
+import com.kyn.qna.dto.GenerationOptions;
+import com.kyn.qna.dto.ModelCallPolicy;
+import com.kyn.qna.dto.ModelPriority;
+import com.kyn.qna.dto.ModelTask;
+import com.kyn.qna.exception.ModelUnavailableException;
+import com.kyn.qna.provider.ModelProvider;
+import com.kyn.qna.provider.ModelTrafficRecorder;
+import com.kyn.qna.util.DeadlineUtil;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,75 +22,143 @@ import reactor.core.publisher.Mono;
 @Service
 @Slf4j
 public class GeminiService {
-    
+
     private final CategoryService categoryService;
-    private final Client aiClient;
+    private final ModelProvider modelProvider;
+    private final ModelTrafficRecorder modelTrafficRecorder;
+    private final PromptCoalescer promptCoalescer;
+    private final ResponseCache responseCache;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ResilientCallExecutor resilientCallExecutor;
+    private final ModelCircuitBreaker circuitBreaker;
+    private final ModelRouter modelRouter;
+    private final DistributedQuotaLimiter quotaLimiter;
+    private final GenerationOptions genericOptions;
+    private final Counter completedCalls;
+    private final Counter failedCalls;
+    private final Counter cancelledCalls;
    
-    public GeminiService(Client aiClient, CategoryService categoryService) {
-        this.aiClient = aiClient;
+    public GeminiService(ModelProvider modelProvider, ModelTrafficRecorder modelTrafficRecorder,
+                         CategoryService categoryService, PromptCoalescer promptCoalescer,
+                         ResponseCache responseCache, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         ResilientCallExecutor resilientCallExecutor, ModelCircuitBreaker circuitBreaker,
+                         ModelRouter modelRouter, DistributedQuotaLimiter quotaLimiter,
+                         ModelCallPolicyProperties policies, MeterRegistry meterRegistry) {
+        this.modelProvider = modelProvider;
+        this.modelTrafficRecorder = modelTrafficRecorder;
         this.categoryService = categoryService;
+        this.promptCoalescer = promptCoalescer;
+        this.responseCache = responseCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.resilientCallExecutor = resilientCallExecutor;
+        this.circuitBreaker = circuitBreaker;
+        this.modelRouter = modelRouter;
+        this.quotaLimiter = quotaLimiter;
+        this.genericOptions = GenerationOptions.builder()
+            .policy(policies.policy("generic", ModelCallPolicy.DEFAULT))
+            .build();
+        this.completedCalls = Counter.builder("gemini.calls").tag("outcome", "completed").register(meterRegistry);
+        this.failedCalls = Counter.builder("gemini.calls").tag("outcome", "failed").register(meterRegistry);
+        // upstream calls abandoned after they started: capacity spent on a result nobody used
+        this.cancelledCalls = Counter.builder("gemini.calls").tag("outcome", "wasted").register(meterRegistry);
     }
 
-    public Mono<String> generateResponse(String question) {   
-        
-        log.info("Generating response for question: {}", question);
-        List<Content> contents = ImmutableList.of(
-            Content.builder()
-              .role("user")
-              .parts(ImmutableList.of(
-                Part.fromText(question)
-              ))
-              .build()
-          );
+    public Mono<String> generateResponse(String question) {
+        return generateResponse(question, genericOptions);
+    }
 
-          
-          GenerateContentConfig config =
-          GenerateContentConfig
-          .builder()
-          .responseMimeType("text/plain")
-          .build();
+    public Mono<String> generateResponse(String question, GenerationOptions options) {
+        return generateResponse(question, options, response -> response);
+    }
 
-          log.info("Generating response for question: {}", question);
+    /**
+     * Generate and parse a response. parser returns null (or throws) when the response is unusable;
+     * with caching enabled only responses that parsed are cached, keyed by task and prompt so the
+     * entry does not depend on which model the router picked.
+     */
+    public <T> Mono<T> generateResponse(String question, GenerationOptions options, Function<String, T> parser) {
+        Mono<T> response = Mono.defer(() -> {
+            if (!options.cacheEnabled()) {
+                return routedCall(question, options).map(Routed::response).mapNotNull(parser);
+            }
+            String key = ResponseCache.key(options.task(), question);
+            return responseCache.get(key)
+                .mapNotNull(parser)
+                // an entry that no longer parses is treated as a miss
+                .onErrorResume(error -> Mono.empty())
+                .switchIfEmpty(routedCall(question, options)
+                    .mapNotNull(routed -> {
+                        T parsed = parser.apply(routed.response());
+                        if (parsed != null) {
+                            responseCache.put(key, routed.model(), routed.response(), options.cacheTtl());
+                        }
+                        return parsed;
+                    }));
+        });
+        // cancelling here reaches the upstream call once no other coalesced caller is waiting on it
+        return DeadlineUtil.within(response, options.deadline());
+    }
 
-        return Mono.fromFuture(aiClient.async.models.generateContent("gemma-3n-e4b-it", contents, config))
-            .filter(response -> response.candidates().isPresent() && !response.candidates().get().isEmpty())
-            .map(response -> response.candidates().get().get(0))
-            .filter(candidate -> candidate.content().isPresent())
-            .map(candidate -> candidate.content().get())
-            .filter(content -> content.parts().isPresent() && !content.parts().get().isEmpty())
-            .map(content -> content.parts().get().get(0).text())
-            .filter(Optional::isPresent)
-            .map(Optional::get);
-            
+    private Mono<Routed> routedCall(String question, GenerationOptions options) {
+        return Mono.defer(() -> {
+            String model = modelRouter.select(options.task());
+            return promptCoalescer.coalesce(model, question, () -> resilientCall(model, question, options))
+                .map(result -> new Routed(model, result));
+        });
+    }
+
+    private record Routed(String model, String response) {}
+
+    /**
+     * Upstream call with the call site's timeout, retry and hedging policy, behind the circuit breaker.
+     * Every attempt takes cluster quota and its own concurrency permit; only model time is recorded as latency,
+     * under the task and routed model so that the hedge delay follows the model actually called.
+     */
+    private Mono<String> resilientCall(String model, String question, GenerationOptions options) {
+        return circuitBreaker.protect(timer -> resilientCallExecutor.execute(ModelRouter.statsKey(options.task(), model),
+            options.policy(),
+            () -> quotaLimiter.acquire(options.task(), question)
+                .then(concurrencyLimiter.run(options.priority(),
+                    () -> timer.time(modelRouter.observe(options.task(), model, callModel(model, question)))))));
     }
 
     public Flux<String> generateResponseStream(String question) {
-        List<Content> contents = ImmutableList.of(
-            Content.builder()
-              .role("user")
-              .parts(ImmutableList.of(
-                Part.fromText(question)
-              ))
-              .build()
-          );
+        return Flux.defer(() -> {
+            String model = modelRouter.select(ModelTask.GENERIC);
+            return promptCoalescer.coalesceStream(model, question,
+                () -> concurrencyLimiter.runMany(ModelPriority.INTERACTIVE,
+                    () -> modelTrafficRecorder.recordStream(model, question, modelProvider.generateStream(model, question))));
+        });
+    }
 
-          GenerateContentConfig config =
-          GenerateContentConfig
-          .builder()
-          .responseMimeType("text/plain")
-          .build();
+    /**
+     * Streaming call for an interactive call site: routed, quota and concurrency limited like generateResponse,
+     * and cancelled at options.deadline(). Chunks cannot be taken back once sent, so there is no retry or hedging;
+     * an open circuit breaker fails the stream before anything is sent.
+     */
+    public Flux<String> generateResponseStream(String question, GenerationOptions options) {
+        Flux<String> response = Flux.defer(() -> {
+            if (circuitBreaker.isOpen()) {
+                return Flux.error(new ModelUnavailableException("Model provider is unavailable"));
+            }
+            String model = modelRouter.select(options.task());
+            return promptCoalescer.coalesceStream(model, question,
+                () -> quotaLimiter.acquire(options.task(), question)
+                    .thenMany(concurrencyLimiter.runMany(options.priority(),
+                        () -> modelTrafficRecorder.recordStream(model, question, modelProvider.generateStream(model, question)))));
+        });
+        return DeadlineUtil.within(response, options.deadline());
+    }
 
-        return Mono.fromFuture(aiClient.async.models.generateContentStream("gemma-3n-e4b-it", contents, config))
-            .flatMapMany(stream -> Flux.fromIterable(stream))
-            .map(GenerateContentResponse::candidates)
-            .filter(candidates -> candidates.isPresent() && !candidates.get().isEmpty())
-            .map(candidates -> candidates.get().get(0))
-            .filter(candidate -> candidate.content().isPresent())
-            .map(candidate -> candidate.content().get())
-            .filter(content -> content.parts().isPresent() && !content.parts().get().isEmpty())
-            .map(content -> content.parts().get().get(0).text())
-            .filter(Optional::isPresent)
-            .map(Optional::get);
+    private Mono<String> callModel(String model, String question) {
+        log.info("Generating response for question with {}: {}", model, question);
+        return modelTrafficRecorder.record(model, question, modelProvider.generate(model, question))
+            .doOnSuccess(response -> completedCalls.increment())
+            .doOnError(error -> failedCalls.increment())
+            .doOnCancel(() -> {
+                cancelledCalls.increment();
+                log.info("Model call cancelled before completion");
+            });
     }
 
 }
@@ -0,0 +1,145 @@
+package com.kyn.qna.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.entity.SimplifiedQuestion;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds the {history} section of the question creation prompt.
+ * Picks the most relevant SimplifiedQuestions of a category under a token budget:
+ * newer entries and entries with a close expYears rank higher, and entries that
+ * overlap with already selected ones are penalized so the history covers more topics.
+ */
+@Component
+@Slf4j
+public class HistorySelector {
+
+    private static final double RECENCY_WEIGHT = 1.0;
+    private static final double EXP_YEARS_WEIGHT = 1.0;
+    private static final double DIVERSITY_WEIGHT = 1.5;
+
+    private final QuestionService questionService;
+    private final int tokenBudget;
+    private final int candidateLimit;
+    private final double charsPerToken;
+
+    public HistorySelector(QuestionService questionService,
+                           @Value("${qna.history.token-budget:1500}") int tokenBudget,
+                           @Value("${qna.history.candidate-limit:200}") int candidateLimit,
+                           @Value("${qna.history.chars-per-token:3.0}") double charsPerToken) {
+        this.questionService = questionService;
+        this.tokenBudget = tokenBudget;
+        this.candidateLimit = candidateLimit;
+        this.charsPerToken = charsPerToken;
+    }
+
+    public Mono<String> select(String category, Integer expYears) {
+        return questionService.getSimplifiedQuestionHistory(category, candidateLimit)
+            .collectList()
+            .map(candidates -> render(rank(candidates, expYears)));
+    }
+
+    private List<Candidate> rank(List<SimplifiedQuestion> history, Integer expYears) {
+        List<Candidate> candidates = new ArrayList<>(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            SimplifiedQuestion entry = history.get(i);
+            String line = format(entry);
+            // history is sorted newest first
+            double recency = 1.0 - (double) i / history.size();
+            double expMatch = expYears == null || entry.getExpYears() == null
+                ? 0.5
+                : 1.0 / (1 + Math.abs(entry.getExpYears() - expYears));
+            candidates.add(new Candidate(line, RECENCY_WEIGHT * recency + EXP_YEARS_WEIGHT * expMatch,
+                tokens(entry.getQuestion()), estimateTokens(line)));
+        }
+
+        List<Candidate> selected = new ArrayList<>();
+        int remaining = tokenBudget;
+        while (!candidates.isEmpty()) {
+            Candidate best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (Candidate candidate : candidates) {
+                if (candidate.cost() > remaining) {
+                    continue;
+                }
+                double score = candidate.relevance() - DIVERSITY_WEIGHT * maxSimilarity(candidate, selected);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = candidate;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            candidates.remove(best);
+            selected.add(best);
+            remaining -= best.cost();
+        }
+
+        log.debug("Selected {} of {} history entries, {} of {} tokens", selected.size(), history.size(),
+            tokenBudget - remaining, tokenBudget);
+        return selected;
+    }
+
+    private String render(List<Candidate> selected) {
+        StringBuilder history = new StringBuilder();
+        for (Candidate candidate : selected) {
+            history.append(candidate.line()).append('\n');
+        }
+        return history.toString();
+    }
+
+    private static String format(SimplifiedQuestion entry) {
+        return "- [" + entry.getExpYears() + "y] " + entry.getQuestion() + " :: " + entry.getSimplifiedDetail();
+    }
+
+    private int estimateTokens(String text) {
+        return (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    private static double maxSimilarity(Candidate candidate, List<Candidate> selected) {
+        double max = 0;
+        for (Candidate other : selected) {
+            max = Math.max(max, jaccard(candidate.terms(), other.terms()));
+        }
+        return max;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String term : a) {
+            if (b.contains(term)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.length() > 1) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private record Candidate(String line, double relevance, Set<String> terms, int cost) {}
+}
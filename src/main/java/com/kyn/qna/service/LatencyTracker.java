@@ -0,0 +1,100 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rolling latency samples of model calls, keyed by task (or any other name).
+ * Percentiles are computed from the most recent samples so that thresholds follow
+ * the provider's current behaviour. The same samples are published as a Micrometer
+ * timer with a percentile histogram.
+ */
+@Component
+public class LatencyTracker {
+
+    private final MeterRegistry meterRegistry;
+    private final int windowSize;
+    private final int minSamples;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LatencyTracker(MeterRegistry meterRegistry,
+                          @Value("${gemini.latency.window-size:256}") int windowSize,
+                          @Value("${gemini.latency.min-samples:20}") int minSamples) {
+        this.meterRegistry = meterRegistry;
+        this.windowSize = windowSize;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Record the latency of successful completions of the given call.
+     */
+    public <T> Mono<T> time(String key, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(result -> record(key, System.nanoTime() - start));
+        });
+    }
+
+    public void record(String key, long latencyNanos) {
+        window(key).add(latencyNanos);
+    }
+
+    /**
+     * Latency percentile (0..1) of recent calls, empty until enough samples were recorded.
+     */
+    public Optional<Duration> percentile(String key, double percentile) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return Optional.empty();
+        }
+        long[] samples = window.snapshot();
+        if (samples.length < minSamples) {
+            return Optional.empty();
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile * samples.length) - 1;
+        return Optional.of(Duration.ofNanos(samples[Math.max(0, Math.min(samples.length - 1, index))]));
+    }
+
+    private Window window(String key) {
+        return windows.computeIfAbsent(key, k -> new Window(windowSize, Timer.builder("gemini.call.latency")
+            .tag("key", k)
+            .publishPercentileHistogram()
+            .register(meterRegistry)));
+    }
+
+    private static final class Window {
+        private final long[] samples;
+        private final Timer timer;
+        private int next;
+        private int size;
+
+        private Window(int capacity, Timer timer) {
+            this.samples = new long[capacity];
+            this.timer = timer;
+        }
+
+        private void add(long latencyNanos) {
+            timer.record(Duration.ofNanos(latencyNanos));
+            synchronized (this) {
+                samples[next] = latencyNanos;
+                next = (next + 1) % samples.length;
+                size = Math.min(size + 1, samples.length);
+            }
+        }
+
+        private synchronized long[] snapshot() {
+            return Arrays.copyOf(samples, size);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kyn.qna.exception.ModelUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker around upstream model calls, over a sliding window of the last N calls.
+ *
+ * The breaker opens when either the failure rate or the slow call rate of the window
+ * crosses its threshold. While open, calls fail fast with ModelUnavailableException.
+ * After open-duration a few trial calls are let through (half open); the breaker closes
+ * again when they are healthy and reopens otherwise.
+ *
+ * Calls shed by our own limiter or deadline do not count as failures, but a call that was
+ * cancelled after running longer than slow-call-duration counts as slow.
+ */
+@Component
+@Slf4j
+public class ModelCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte OK = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final byte[] window;
+    private int next;
+    private int size;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenFinished;
+    private boolean halfOpenHealthy;
+
+    private final Counter opened;
+    private final Counter rejected;
+
+    public ModelCircuitBreaker(MeterRegistry meterRegistry,
+                               @Value("${gemini.breaker.window-size:50}") int windowSize,
+                               @Value("${gemini.breaker.min-calls:10}") int minCalls,
+                               @Value("${gemini.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                               @Value("${gemini.breaker.slow-call-rate-threshold:0.6}") double slowCallRateThreshold,
+                               @Value("${gemini.breaker.slow-call-duration:PT15S}") Duration slowCallDuration,
+                               @Value("${gemini.breaker.open-duration:PT30S}") Duration openDuration,
+                               @Value("${gemini.breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new byte[windowSize];
+
+        this.opened = Counter.builder("gemini.breaker.transitions").tag("to", "open").register(meterRegistry);
+        this.rejected = Counter.builder("gemini.breaker.rejected").register(meterRegistry);
+        Gauge.builder("gemini.breaker.state", this, breaker -> breaker.state().ordinal())
+            .description("0 closed, 1 open, 2 half open")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run the call if the breaker permits it and record its outcome.
+     * The call passes its model attempts through the given CallTimer once they hold a concurrency permit,
+     * so time spent waiting for quota or capacity is not taken for a slow provider.
+     */
+    public <T> Mono<T> protect(Function<CallTimer, Mono<T>> call) {
+        return Mono.defer(() -> {
+            boolean trial;
+            synchronized (this) {
+                if (!permit()) {
+                    rejected.increment();
+                    return Mono.error(new ModelUnavailableException("Model provider is unavailable, circuit breaker is open"));
+                }
+                trial = state == State.HALF_OPEN;
+            }
+            CallTimer timer = new CallTimer();
+            return call.apply(timer)
+                .doOnSuccess(result -> record(trial, timer.elapsedNanos() > slowCallNanos ? SLOW : OK))
+                .doOnError(error -> {
+                    if (error instanceof ResponseStatusException) {
+                        // shed locally, says nothing about the provider
+                        release(trial);
+                    } else {
+                        record(trial, FAILED);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (timer.elapsedNanos() > slowCallNanos) {
+                        record(trial, SLOW);
+                    } else {
+                        release(trial);
+                    }
+                });
+        });
+    }
+
+    /**
+     * True while calls are rejected; lets call sites go to their fallback without building a prompt first.
+     */
+    public synchronized boolean isOpen() {
+        return state() == State.OPEN;
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private boolean permit() {
+        switch (state()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenStarted < halfOpenCalls) {
+                    halfOpenStarted++;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private synchronized void record(boolean trial, byte outcome) {
+        if (trial) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            halfOpenFinished++;
+            if (outcome != OK) {
+                halfOpenHealthy = false;
+                trip("trial call " + (outcome == SLOW ? "was slow" : "failed"));
+            } else if (halfOpenFinished >= halfOpenCalls && halfOpenHealthy) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        if (size == windowSize) {
+            forget(window[next]);
+        } else {
+            size++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % windowSize;
+        if (outcome == FAILED) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+
+        if (size >= minCalls) {
+            double failureRate = (double) failures / size;
+            double slowCallRate = (double) slowCalls / size;
+            if (failureRate >= failureRateThreshold) {
+                trip(String.format("failure rate %.2f over the last %d calls", failureRate, size));
+            } else if (slowCallRate >= slowCallRateThreshold) {
+                trip(String.format("slow call rate %.2f over the last %d calls", slowCallRate, size));
+            }
+        }
+    }
+
+    private synchronized void release(boolean trial) {
+        // give the trial slot back so another call can probe the provider
+        if (trial && state == State.HALF_OPEN && halfOpenStarted > halfOpenFinished) {
+            halfOpenStarted--;
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILED) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void trip(String reason) {
+        log.warn("Opening model circuit breaker: {}", reason);
+        opened.increment();
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        if (to != State.OPEN && state != to) {
+            log.info("Model circuit breaker {} -> {}", state, to);
+        }
+        state = to;
+        switch (to) {
+            case OPEN:
+                openedAt = System.nanoTime();
+                break;
+            case HALF_OPEN:
+                halfOpenStarted = 0;
+                halfOpenFinished = 0;
+                halfOpenHealthy = true;
+                break;
+            case CLOSED:
+                next = 0;
+                size = 0;
+                failures = 0;
+                slowCalls = 0;
+                break;
+        }
+    }
+
+    /**
+     * Time of a protected call from the moment its first attempt started on the provider.
+     */
+    public static final class CallTimer {
+        private volatile long startNanos;
+        private volatile boolean started;
+
+        /**
+         * Start the clock when the attempt is subscribed, unless an earlier attempt already started it.
+         */
+        public <T> Mono<T> time(Mono<T> attempt) {
+            return Mono.defer(() -> {
+                if (!started) {
+                    startNanos = System.nanoTime();
+                    started = true;
+                }
+                return attempt;
+            });
+        }
+
+        private long elapsedNanos() {
+            return started ? System.nanoTime() - startNanos : 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kyn.qna.dto.ModelTask;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Chooses the model for a call from the task's candidate list.
+ *
+ * Candidates are in order of preference. The first candidate whose recent latency
+ * (slo-percentile of the last calls) is within the task's SLO and whose error rate is
+ * below max-error-rate is used. When none qualifies, the candidate with the best
+ * latency/error score is used. A small share of calls goes to another candidate so
+ * that statistics of models traffic moved away from stay current.
+ *
+ * Per task settings, with the task in lower case and '-' for '_' (e.g. follow-up):
+ * gemini.routing.[task].models - comma separated candidates
+ * gemini.routing.[task].slo - latency objective of a single call
+ */
+@Component
+@Slf4j
+public class ModelRouter {
+
+    public static final String DEFAULT_MODEL = "gemma-3n-e4b-it";
+
+    private static final String FAST_MODELS = "gemma-3n-e2b-it," + DEFAULT_MODEL;
+    private static final String STRONG_MODELS = DEFAULT_MODEL + ",gemma-3-12b-it";
+    private static final double ERROR_RATE_DECAY = 0.1;
+
+    private final LatencyTracker latencyTracker;
+    private final MeterRegistry meterRegistry;
+    private final double sloPercentile;
+    private final double maxErrorRate;
+    private final double exploreRatio;
+    private final Map<ModelTask, Route> routes = new EnumMap<>(ModelTask.class);
+    private final Map<String, ErrorRate> errorRates = new ConcurrentHashMap<>();
+    private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+
+    public ModelRouter(LatencyTracker latencyTracker, MeterRegistry meterRegistry, Environment environment,
+                       @Value("${gemini.routing.slo-percentile:0.9}") double sloPercentile,
+                       @Value("${gemini.routing.max-error-rate:0.2}") double maxErrorRate,
+                       @Value("${gemini.routing.explore-ratio:0.02}") double exploreRatio) {
+        this.latencyTracker = latencyTracker;
+        this.meterRegistry = meterRegistry;
+        this.sloPercentile = sloPercentile;
+        this.maxErrorRate = maxErrorRate;
+        this.exploreRatio = exploreRatio;
+
+        route(environment, ModelTask.CREATE, STRONG_MODELS, Duration.ofSeconds(8));
+        route(environment, ModelTask.GRADE, STRONG_MODELS, Duration.ofSeconds(20));
+        route(environment, ModelTask.FOLLOW_UP, STRONG_MODELS, Duration.ofSeconds(20));
+        route(environment, ModelTask.SUMMARIZE, FAST_MODELS, Duration.ofSeconds(10));
+        route(environment, ModelTask.CATEGORY_MANAGE, FAST_MODELS, Duration.ofSeconds(10));
+        route(environment, ModelTask.GENERIC, DEFAULT_MODEL, Duration.ofSeconds(20));
+    }
+
+    private void route(Environment environment, ModelTask task, String defaultModels, Duration defaultSlo) {
+        String prefix = "gemini.routing." + task.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        List<String> models = Arrays.stream(environment.getProperty(prefix + ".models", defaultModels).split(","))
+            .map(String::trim)
+            .filter(model -> !model.isEmpty())
+            .toList();
+        Duration slo = environment.getProperty(prefix + ".slo", Duration.class, defaultSlo);
+        routes.put(task, new Route(models.isEmpty() ? List.of(DEFAULT_MODEL) : models, slo));
+        for (String model : models) {
+            Gauge.builder("gemini.routing.error-rate", this, router -> router.errorRate(task, model))
+                .tag("task", task.name())
+                .tag("model", model)
+                .register(meterRegistry);
+        }
+        log.info("Model route {}: {} with SLO {}", task, models, slo);
+    }
+
+    public String select(ModelTask task) {
+        Route route = routes.get(task);
+        List<String> candidates = route.models();
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < exploreRatio) {
+            return decide(task, candidates.get(random.nextInt(candidates.size())), "explore");
+        }
+
+        String best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            String model = candidates.get(i);
+            Optional<Duration> latency = latencyTracker.percentile(statsKey(task, model), sloPercentile);
+            double errorRate = errorRate(task, model);
+            boolean withinSlo = latency.map(observed -> observed.compareTo(route.slo()) <= 0).orElse(true);
+            if (withinSlo && errorRate < maxErrorRate) {
+                return decide(task, model, i == 0 ? "preferred" : "fallback");
+            }
+            // unknown latency counts as meeting the SLO
+            double score = latency.map(Duration::toMillis).orElse(route.slo().toMillis()) * (1 + 4 * errorRate);
+            if (score < bestScore) {
+                bestScore = score;
+                best = model;
+            }
+        }
+        return decide(task, best, "best-effort");
+    }
+
+    /**
+     * Record latency and outcome of a call to the selected model.
+     */
+    public <T> Mono<T> observe(ModelTask task, String model, Mono<T> call) {
+        ErrorRate errorRate = errorRates.computeIfAbsent(statsKey(task, model), key -> new ErrorRate());
+        return latencyTracker.time(statsKey(task, model), call)
+            .doOnSuccess(result -> errorRate.record(false))
+            .doOnError(error -> {
+                // shed locally, says nothing about the model
+                if (!(error instanceof ResponseStatusException)) {
+                    errorRate.record(true);
+                }
+            });
+    }
+
+    private double errorRate(ModelTask task, String model) {
+        ErrorRate errorRate = errorRates.get(statsKey(task, model));
+        return errorRate == null ? 0 : errorRate.get();
+    }
+
+    private String decide(ModelTask task, String model, String reason) {
+        decisions.computeIfAbsent(task.name() + ":" + model + ":" + reason, key -> Counter.builder("gemini.routing.decisions")
+                .tag("task", task.name())
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(meterRegistry))
+            .increment();
+        return model;
+    }
+
+    /**
+     * Latency tracker key of calls to the model for the task.
+     */
+    static String statsKey(ModelTask task, String model) {
+        return task.name() + ":" + model;
+    }
+
+    private record Route(List<String> models, Duration slo) {}
+
+    private static final class ErrorRate {
+        private double rate;
+
+        private synchronized void record(boolean failed) {
+            rate += ERROR_RATE_DECAY * ((failed ? 1 : 0) - rate);
+        }
+
+        private synchronized double get() {
+            return rate;
+        }
+    }
+}
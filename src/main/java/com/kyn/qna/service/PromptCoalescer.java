@@ -0,0 +1,119 @@
+package com.kyn.qna.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight layer for model calls.
+ * Concurrent calls with the same model and prompt share one upstream request,
+ * keyed on model name plus a SHA-256 hash of the prompt.
+ */
+@Component
+@Slf4j
+public class PromptCoalescer {
+
+    private final Map<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Flux<String>> inFlightStreams = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public PromptCoalescer(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("gemini.coalesce.requests")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("gemini.coalesce.requests")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("gemini.coalesce.inflight", inFlight, Map::size)
+            .tag("type", "response")
+            .register(meterRegistry);
+        Gauge.builder("gemini.coalesce.inflight", inFlightStreams, Map::size)
+            .tag("type", "stream")
+            .register(meterRegistry);
+    }
+
+    public Mono<String> coalesce(String model, String prompt, Supplier<Mono<String>> call) {
+        return Mono.defer(() -> {
+            String key = key(model, prompt);
+            AtomicBoolean leader = new AtomicBoolean();
+            Mono<String> shared = inFlight.computeIfAbsent(key, k -> {
+                leader.set(true);
+                AtomicReference<Mono<String>> self = new AtomicReference<>();
+                Mono<String> mono = Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(k, self.get()))
+                    .share();
+                self.set(mono);
+                return mono;
+            });
+            record(key, leader.get());
+            return shared;
+        });
+    }
+
+    public Flux<String> coalesceStream(String model, String prompt, Supplier<Flux<String>> call) {
+        return Flux.defer(() -> {
+            String key = key(model, prompt);
+            AtomicBoolean leader = new AtomicBoolean();
+            Flux<String> shared = inFlightStreams.computeIfAbsent(key, k -> {
+                leader.set(true);
+                AtomicReference<Flux<String>> self = new AtomicReference<>();
+                // replay so that late joiners still receive the chunks emitted before they subscribed
+                Flux<String> flux = Flux.defer(call)
+                    .doFinally(signal -> inFlightStreams.remove(k, self.get()))
+                    .replay()
+                    .refCount();
+                self.set(flux);
+                return flux;
+            });
+            record(key, leader.get());
+            return shared;
+        });
+    }
+
+    public double hitCount() {
+        return hits.count();
+    }
+
+    public double missCount() {
+        return misses.count();
+    }
+
+    private void record(String key, boolean leader) {
+        if (leader) {
+            misses.increment();
+        } else {
+            hits.increment();
+            log.debug("Joined in-flight model call: {}", key);
+        }
+    }
+
+    public static String key(String model, String prompt) {
+        return model + ":" + hash(prompt);
+    }
+
+    public static String hash(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,113 +1,402 @@
 package com.kyn.qna.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kyn.qna.config.ModelCallPolicyProperties;
 import com.kyn.qna.dto.AdditionalQuestion;
+import com.kyn.qna.dto.GenerationOptions;
+import com.kyn.qna.dto.ModelCallPolicy;
+import com.kyn.qna.dto.ModelPriority;
+import com.kyn.qna.dto.ModelTask;
 import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.dto.QuestionStreamEvent;
 import com.kyn.qna.dto.SimplifiedQuestionRequest;
+import com.kyn.qna.entity.PooledQuestion;
 import com.kyn.qna.entity.Question;
 import com.kyn.qna.entity.SimplifiedQuestion;
+import com.kyn.qna.exception.ModelUnavailableException;
 import com.kyn.qna.mapper.EntityDtoMapper;
+import com.kyn.qna.service.QuestionPoolService.PoolKey;
+import com.kyn.qna.util.DeadlineUtil;
+import com.kyn.qna.util.IncrementalJsonParser;
+import com.kyn.qna.util.JsonCodecs;
 import com.kyn.qna.util.JsonStringUtil;
+import com.kyn.qna.util.PromptTemplate;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 public class QuestionManageService {
+    private static final Pattern ADDITIONAL_QUESTION_PATTERN = Pattern.compile("\"question\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*)\",?\\s*\"answer\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*?)\"", Pattern.DOTALL);
+
     private final QuestionService questionService;
     private final GeminiService geminiService;
-    private final ObjectMapper objectMapper;
+    private final SummaryJobService summaryJobService;
+    private final HistorySelector historySelector;
+    private final ModelCircuitBreaker circuitBreaker;
+    private final QuestionPoolService questionPoolService;
+    private final FollowUpDraftService followUpDraftService;
+    private final JsonCodecs jsonCodecs;
+    private final ModelCallPolicyProperties policies;
+    private final GenerationOptions pooledQuestionOptions;
+    private final GenerationOptions speculativeFollowUpOptions;
+    private final GenerationOptions simplifiedQuestionOptions;
+    private final GenerationOptions simplifiedQuestionBatchOptions;
 
-    public QuestionManageService(QuestionService questionService, GeminiService geminiService, ObjectMapper objectMapper) {
+    public QuestionManageService(QuestionService questionService, GeminiService geminiService,
+                                 SummaryJobService summaryJobService, HistorySelector historySelector,
+                                 ModelCircuitBreaker circuitBreaker, QuestionPoolService questionPoolService,
+                                 FollowUpDraftService followUpDraftService, JsonCodecs jsonCodecs,
+                                 ModelCallPolicyProperties policies,
+                                 @Value("${gemini.cache.simplified-question-ttl:P7D}") Duration simplifiedQuestionCacheTtl) {
         this.questionService = questionService;
         this.geminiService = geminiService;
-        this.objectMapper = objectMapper;
+        this.summaryJobService = summaryJobService;
+        this.historySelector = historySelector;
+        this.circuitBreaker = circuitBreaker;
+        this.questionPoolService = questionPoolService;
+        this.followUpDraftService = followUpDraftService;
+        this.jsonCodecs = jsonCodecs;
+        this.policies = policies;
+        this.pooledQuestionOptions = GenerationOptions.builder()
+            .priority(ModelPriority.BACKGROUND)
+            .task(ModelTask.CREATE)
+            .policy(policies.policy("question-pool", ModelCallPolicy.BACKGROUND))
+            .build();
+        this.speculativeFollowUpOptions = GenerationOptions.builder()
+            .priority(ModelPriority.BACKGROUND)
+            .task(ModelTask.FOLLOW_UP)
+            .policy(policies.policy("follow-up-draft", ModelCallPolicy.BACKGROUND))
+            .build();
+        this.simplifiedQuestionOptions = GenerationOptions.builder()
+            .cacheTtl(simplifiedQuestionCacheTtl)
+            .priority(ModelPriority.BACKGROUND)
+            .task(ModelTask.SUMMARIZE)
+            .policy(policies.policy("simplified-question", ModelCallPolicy.BACKGROUND))
+            .build();
+        this.simplifiedQuestionBatchOptions = simplifiedQuestionOptions.toBuilder()
+            .cacheTtl(null)
+            .build();
     }
 
     public Mono<Question> createQuestion(QuestionRequest questionRequest){
+        return createQuestion(questionRequest, null);
+    }
 
-        //get history questions by category
-        return questionService.getSimplifiedQuestionByCategory(questionRequest.category())
-            .collectList()
+    /**
+     * deadline - the model call and persistence are cancelled once it passes, null means no deadline
+     */
+    public Mono<Question> createQuestion(QuestionRequest questionRequest, Instant deadline){
+        //claim a pre-generated question, the model is only called when the pool is empty
+        return DeadlineUtil.within(questionPoolService.claim(questionRequest.category(), questionRequest.expYears())
+            .flatMap(pooled -> questionService.insert(QuestionRequest.builder()
+                .question(pooled.getQuestion())
+                .category(questionRequest.category())
+                .expYears(questionRequest.expYears())
+                .build())), deadline)
+            .switchIfEmpty(Mono.defer(() -> generateQuestion(questionRequest, deadline)));
+    }
+
+    private Mono<Question> generateQuestion(QuestionRequest questionRequest, Instant deadline){
+        //serve a stored question while the model provider is unavailable
+        if (circuitBreaker.isOpen()) {
+            return createDegradedQuestion(questionRequest, null);
+        }
+
+        //get history questions by category, ranked and trimmed to the prompt token budget
+        return DeadlineUtil.within(historySelector.select(questionRequest.category(), questionRequest.expYears())
             //create prompt
-            .map(questions -> 
-                questionCreationPrompt
-                .replace("{history}", questions.toString())
-                .replace("{category}", questionRequest.category())
-                .replace("{expYears}", String.valueOf(questionRequest.expYears())))    
+            .map(history -> 
+                questionCreationPrompt.render(history, questionRequest.category(), questionRequest.expYears()))
             //generate response
-            .flatMap(geminiService::generateResponse)
+            .flatMap(prompt -> geminiService.generateResponse(prompt, interactiveOptions(ModelTask.CREATE, deadline)))
             .map(JsonStringUtil::extractJsonFromResponse)
             //save question
             .map(jsonResponse -> parseResponse(jsonResponse, questionRequest))
-            .flatMap(questionService::insert);
+            .flatMap(questionService::insert), deadline)
+            .onErrorResume(ModelUnavailableException.class, error -> createDegradedQuestion(questionRequest, error));
+    }
+
+    /**
+     * Streaming variant of createQuestion: the question text is sent while it is generated.
+     * Pooled and degraded questions are sent as a single question event.
+     */
+    public Flux<QuestionStreamEvent> createQuestionStream(QuestionRequest questionRequest, Instant deadline){
+        Mono<Question> pooled = questionPoolService.claim(questionRequest.category(), questionRequest.expYears())
+            .flatMap(claimed -> questionService.insert(QuestionRequest.builder()
+                .question(claimed.getQuestion())
+                .category(questionRequest.category())
+                .expYears(questionRequest.expYears())
+                .build()));
+
+        return DeadlineUtil.within(pooled.map(QuestionStreamEvent::of).flux()
+            .switchIfEmpty(Flux.defer(() -> historySelector.select(questionRequest.category(), questionRequest.expYears())
+                .flatMapMany(history -> streamAndPersist(
+                    questionCreationPrompt.render(history, questionRequest.category(), questionRequest.expYears()),
+                    interactiveOptions(ModelTask.CREATE, deadline),
+                    response -> questionService.insert(parseResponse(JsonStringUtil.extractJsonFromResponse(response), questionRequest)))))), deadline)
+            .onErrorResume(ModelUnavailableException.class,
+                error -> createDegradedQuestion(questionRequest, error).map(QuestionStreamEvent::of));
+    }
+
+    /**
+     * Generate a question for the pool at background priority.
+     * pending - questions already in the pool, added to the history so the new one differs from them
+     */
+    public Mono<PooledQuestion> generatePooledQuestion(PoolKey key, List<String> pending){
+        QuestionRequest request = QuestionRequest.builder()
+            .category(key.category())
+            .expYears(key.expYears())
+            .build();
+        return historySelector.select(key.category(), key.expYears())
+            .map(history -> {
+                StringBuilder withPending = new StringBuilder(history);
+                pending.forEach(question -> withPending.append("- [").append(key.expYears()).append("y] ")
+                    .append(question).append('\n'));
+                return questionCreationPrompt.render(withPending, key.category(), key.expYears());
+            })
+            .flatMap(prompt -> geminiService.generateResponse(prompt, pooledQuestionOptions))
+            .map(JsonStringUtil::extractJsonFromResponse)
+            .map(jsonResponse -> parseResponse(jsonResponse, request))
+            .filter(parsed -> parsed.question() != null && !parsed.question().isBlank())
+            .flatMap(parsed -> questionPoolService.add(key, parsed.question()));
+    }
+
+    /**
+     * Copy a random stored question of the same category and expYears into a new Question
+     * (so that it can be answered as usual) and mark the response as degraded.
+     * Fails with the original error when there is no stored question to serve.
+     */
+    private Mono<Question> createDegradedQuestion(QuestionRequest questionRequest, Throwable cause){
+        Mono<Question> unavailable = Mono.error(cause != null
+            ? cause
+            : new ModelUnavailableException("Model provider is unavailable and no stored question exists"));
+        if (questionRequest.category() == null || questionRequest.expYears() == null) {
+            return unavailable;
+        }
+        return questionService.getRandomQuestion(questionRequest.category(), questionRequest.expYears())
+            .flatMap(stored -> {
+                log.warn("Serving stored question {} for category {} in degraded mode", stored.get_id(), stored.getCategory());
+                return questionService.insert(QuestionRequest.builder()
+                    .question(stored.getQuestion())
+                    .category(questionRequest.category())
+                    .expYears(questionRequest.expYears())
+                    .build());
+            })
+            .doOnNext(question -> question.setDegraded(true))
+            .switchIfEmpty(unavailable);
     }
 
     public Mono<Question> userAnswered(QuestionRequest questionRequest){
+        return userAnswered(questionRequest, null);
+    }
+
+    public Mono<Question> userAnswered(QuestionRequest questionRequest, Instant deadline){
         
-        return geminiService.generateResponse(questionGradingPrompt
-            .replace("{question}", questionRequest.toString()))
+        return DeadlineUtil.within(geminiService.generateResponse(questionGradingPrompt.render(questionRequest), interactiveOptions(ModelTask.GRADE, deadline))
             .map(JsonStringUtil::extractJsonFromResponse)
             .map(jsonResponse -> parseResponse(jsonResponse, questionRequest))
-            .flatMap(questionService::update)
-            .flatMap(question -> {
-                saveSimplifiedQuestion(question)
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .subscribe(
-                        result -> log.info("SimplifiedQuestion saved successfully: {}", result.get_id()),
-                        error -> log.error("Failed to save SimplifiedQuestion: {}", error.getMessage())
-                    );
-                return Mono.just(question);
-            });
+            .flatMap(questionService::updateGrade), deadline)
+            .flatMap(this::enqueueSimplifiedQuestion)
+            .doOnNext(this::speculateFollowUp);
+    }
+
+    /**
+     * Streaming variant of userAnswered: score and modelAnswer are sent while they are generated,
+     * the graded Question is stored once the response is complete.
+     */
+    public Flux<QuestionStreamEvent> userAnsweredStream(QuestionRequest questionRequest, Instant deadline){
+        return DeadlineUtil.within(streamAndPersist(questionGradingPrompt.render(questionRequest),
+                interactiveOptions(ModelTask.GRADE, deadline),
+                response -> questionService.updateGrade(parseResponse(JsonStringUtil.extractJsonFromResponse(response), questionRequest))), deadline)
+            .concatMap(event -> event.question() == null
+                ? Mono.just(event)
+                : enqueueSimplifiedQuestion(event.question())
+                    .doOnNext(this::speculateFollowUp)
+                    .thenReturn(event));
+    }
+
+    /**
+     * Generate the follow-up content of a graded question in the background, so that
+     * a following additional-question request can be answered from the draft.
+     * Only for questions without additional questions: the draft is appended as a whole,
+     * so it must not repeat stored ones.
+     */
+    private void speculateFollowUp(Question question) {
+        if (!followUpDraftService.isEnabled()
+            || (question.getAdditionalQuestions() != null && !question.getAdditionalQuestions().isEmpty())) {
+            return;
+        }
+        QuestionRequest graded = EntityDtoMapper.toQuestionRequest(question);
+        followUpDraftService.speculate(question.get_id(), FollowUpDraftService.inputHash(graded),
+            () -> geminiService.generateResponse(questionAdditionalQuestion.render(graded), speculativeFollowUpOptions)
+                .map(JsonStringUtil::extractJsonFromResponse)
+                .map(jsonResponse -> parseAdditionalQuestionsAndAnswers(jsonResponse, graded).additionalQuestions()));
     }
 
     public Mono<Question> getAdditionalQuestionsAndAnswers(QuestionRequest questionRequest){
-        return geminiService.generateResponse(
-            questionAdditionalQuestion
-            .replace("{records}", questionRequest.toString())
+        return getAdditionalQuestionsAndAnswers(questionRequest, null);
+    }
+
+    public Mono<Question> getAdditionalQuestionsAndAnswers(QuestionRequest questionRequest, Instant deadline){
+        return DeadlineUtil.within(takeDraft(questionRequest).switchIfEmpty(Mono.defer(() -> geminiService.generateResponse(
+            questionAdditionalQuestion.render(questionRequest), interactiveOptions(ModelTask.FOLLOW_UP, deadline)
         )
         .map(JsonStringUtil::extractJsonFromResponse)
         .map(jsonResponse -> parseAdditionalQuestionsAndAnswers(jsonResponse, questionRequest))
-        .flatMap(questionService::update)
-        .flatMap(question -> {
-            saveSimplifiedQuestion(question)
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe(
-                    result -> log.info("SimplifiedQuestion saved successfully: {}", result.get_id()),
-                    error -> log.error("Failed to save SimplifiedQuestion: {}", error.getMessage())
-                );
-            return Mono.just(question);
-        });
+        .flatMap(answered -> questionService.appendAdditionalQuestions(answered, storedAdditionalQuestions(questionRequest))))), deadline)
+        .flatMap(this::enqueueSimplifiedQuestion);
         
     }
 
+    /**
+     * Streaming variant of getAdditionalQuestionsAndAnswers. A draft generated after grading is
+     * sent as a single question event.
+     */
+    public Flux<QuestionStreamEvent> getAdditionalQuestionsAndAnswersStream(QuestionRequest questionRequest, Instant deadline){
+        return DeadlineUtil.within(takeDraft(questionRequest).map(QuestionStreamEvent::of).flux()
+            .switchIfEmpty(Flux.defer(() -> streamAndPersist(questionAdditionalQuestion.render(questionRequest),
+                interactiveOptions(ModelTask.FOLLOW_UP, deadline),
+                response -> questionService.appendAdditionalQuestions(
+                    parseAdditionalQuestionsAndAnswers(response, questionRequest), storedAdditionalQuestions(questionRequest))))), deadline)
+            .concatMap(event -> event.question() == null
+                ? Mono.just(event)
+                : enqueueSimplifiedQuestion(event.question()).thenReturn(event));
+    }
+
+    /**
+     * Use the draft generated after grading when it was made for the same inputs, which also means the
+     * request has no additional questions. The draft is appended in full, stored entries are kept.
+     */
+    private Mono<Question> takeDraft(QuestionRequest questionRequest) {
+        return followUpDraftService.take(questionRequest._id(), FollowUpDraftService.inputHash(questionRequest))
+            .flatMap(additionalQuestions -> questionService.pushAdditionalQuestions(questionRequest._id(), additionalQuestions));
+    }
+
+    /**
+     * Stream the fields of the model response as they are parsed, then persist the complete response
+     * once with the same parsing as the non-streaming path and end with the stored Question.
+     */
+    private Flux<QuestionStreamEvent> streamAndPersist(String prompt, GenerationOptions options,
+                                                       Function<String, Mono<Question>> persist){
+        return Flux.defer(() -> {
+            StringBuilder response = new StringBuilder();
+            Flux<String> chunks = geminiService.generateResponseStream(prompt, options).doOnNext(response::append);
+            return IncrementalJsonParser.parse(chunks)
+                .filter(event -> event.type() != IncrementalJsonParser.EventType.END)
+                .map(QuestionStreamEvent::of)
+                .concatWith(Mono.defer(() -> persist.apply(response.toString())).map(QuestionStreamEvent::of));
+        });
+    }
+
+    /**
+     * Additional questions of the request that are already stored: the leading answered ones.
+     * The new, unanswered questions follow them and are appended once answered.
+     */
+    private static int storedAdditionalQuestions(QuestionRequest questionRequest) {
+        List<AdditionalQuestion> additionalQuestions = questionRequest.additionalQuestions();
+        int stored = 0;
+        while (additionalQuestions != null && stored < additionalQuestions.size()
+            && additionalQuestions.get(stored) != null
+            && additionalQuestions.get(stored).getAnswer() != null
+            && !additionalQuestions.get(stored).getAnswer().isBlank()) {
+            stored++;
+        }
+        return stored;
+    }
+
+    /**
+     * The call site is named after the task, e.g. follow-up for FOLLOW_UP.
+     */
+    private GenerationOptions interactiveOptions(ModelTask task, Instant deadline) {
+        return GenerationOptions.builder()
+            .task(task)
+            .policy(policies.policy(task.name().toLowerCase(Locale.ROOT).replace('_', '-'), ModelCallPolicy.INTERACTIVE))
+            .deadline(deadline)
+            .build();
+    }
+
+    /**
+     * SimplifiedQuestion generation runs from the durable summary job queue (see SummaryJobWorker).
+     */
+    private Mono<Question> enqueueSimplifiedQuestion(Question question) {
+        return summaryJobService.enqueue(question.get_id())
+            .onErrorResume(error -> {
+                log.error("Failed to enqueue SimplifiedQuestion job: {}", error.getMessage());
+                return Mono.empty();
+            })
+            .thenReturn(question);
+    }
+
 
     private Mono<SimplifiedQuestion> saveSimplifiedQuestion(QuestionRequest question){
         
-        return geminiService.generateResponse(questionSimplifiedQuestion
-                .replace("{question}", question.toString()))
-            .map(JsonStringUtil::extractJsonFromResponse)
-            .map(jsonResponse -> parseSimplifiedQuestion(jsonResponse, question))
+        return geminiService.generateResponse(questionSimplifiedQuestion.render(question), simplifiedQuestionOptions,
+                response -> parseSimplifiedQuestion(JsonStringUtil.extractJsonFromResponse(response), question))
             .flatMap(questionService::saveSimplifiedQuestion);
     }
     
-    private Mono<SimplifiedQuestion> saveSimplifiedQuestion(Question question){
+    /**
+     * Summarize several questions with a single model call.
+     * Questions missing from the batch response (or the whole batch, if the call fails)
+     * fall back to one call per question.
+     */
+    public Flux<SimplifiedQuestion> saveSimplifiedQuestions(List<Question> questions){
+        if (questions.size() == 1) {
+            return saveSimplifiedQuestion(questions.get(0)).flux();
+        }
+
+        Map<String, QuestionRequest> requests = new LinkedHashMap<>();
+        questions.forEach(question -> requests.put(question.get_id(), EntityDtoMapper.toQuestionRequest(question)));
+
+        return geminiService.generateResponse(questionSimplifiedBatchQuestion.render(requests.values()),
+                simplifiedQuestionBatchOptions)
+            .map(jsonResponse -> parseSimplifiedQuestions(jsonResponse, requests))
+            .onErrorResume(error -> {
+                log.warn("Batch SimplifiedQuestion generation failed, falling back to single calls: {}", error.getMessage());
+                return Mono.empty();
+            })
+            .defaultIfEmpty(Map.of())
+            .flatMapMany(parsed -> Flux.fromIterable(requests.values())
+                .flatMap(request -> {
+                    SimplifiedQuestionRequest simplified = parsed.get(request._id());
+                    Mono<SimplifiedQuestion> saved;
+                    if (simplified != null) {
+                        saved = questionService.saveSimplifiedQuestion(simplified);
+                    } else {
+                        log.info("SimplifiedQuestion {} missing from batch response, summarizing individually", request._id());
+                        saved = saveSimplifiedQuestion(request);
+                    }
+                    return saved.onErrorResume(error -> {
+                        log.error("Failed to save SimplifiedQuestion {}: {}", request._id(), error.getMessage());
+                        return Mono.empty();
+                    });
+                }));
+    }
+
+    public Mono<SimplifiedQuestion> saveSimplifiedQuestion(Question question){
         var questionRequest = EntityDtoMapper.toQuestionRequest(question);
-        return geminiService.generateResponse(questionSimplifiedQuestion
-                .replace("{question}", questionRequest.toString()))
-            .map(JsonStringUtil::extractJsonFromResponse)
-            .map(jsonResponse -> parseSimplifiedQuestion(jsonResponse, questionRequest))
+        return geminiService.generateResponse(questionSimplifiedQuestion.render(questionRequest), simplifiedQuestionOptions,
+                response -> parseSimplifiedQuestion(JsonStringUtil.extractJsonFromResponse(response), questionRequest))
             .flatMap(questionService::saveSimplifiedQuestion);
     }
 
@@ -184,21 +473,20 @@ public class QuestionManageService {
                 .build();
         }
     }
-    
+
     private List<AdditionalQuestion> parseAdditionalQuestionsWithFallback(String cleanJson) {
         // Strategy 1: Standard JSON parsing
         try {
-            AdditionalQuestion[] array = objectMapper.readValue(cleanJson, AdditionalQuestion[].class);
+            AdditionalQuestion[] array = jsonCodecs.read(cleanJson, AdditionalQuestion[].class);
             return Arrays.asList(array);
         } catch (JsonProcessingException e1) {
             log.warn("Standard JSON parsing failed, trying enhanced cleaning: {}", e1.getMessage());
             
-            // Strategy 2: Enhanced JSON cleaning
+            // Strategy 2: Lenient JSON repair
             try {
-                String enhancedCleanJson = JsonStringUtil.extractAndCleanJsonFromResponse(cleanJson);
-                AdditionalQuestion[] array = objectMapper.readValue(enhancedCleanJson, AdditionalQuestion[].class);
+                AdditionalQuestion[] array = jsonCodecs.readLenient(cleanJson, AdditionalQuestion[].class);
                 return Arrays.asList(array);
-            } catch (JsonProcessingException e2) {
+            } catch (IOException e2) {
                 log.warn("Enhanced JSON cleaning failed, trying manual parsing: {}", e2.getMessage());
                 
                 // Strategy 3: Manual parsing as last resort
@@ -211,8 +499,7 @@ public class QuestionManageService {
         List<AdditionalQuestion> result = new ArrayList<>();
         try {
             // Extract question-answer pairs using regex
-            Pattern pattern = Pattern.compile("\"question\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*)\",?\\s*\"answer\"\\s*:\\s*\"([^\"]*(?:\\\\.[^\"]*)*?)\"", Pattern.DOTALL);
-            Matcher matcher = pattern.matcher(json);
+            Matcher matcher = ADDITIONAL_QUESTION_PATTERN.matcher(json);
             
             while (matcher.find()) {
                 String question = matcher.group(1).replaceAll("\\\\\"", "\"");
@@ -233,33 +520,55 @@ public class QuestionManageService {
         return result;
     }
 
+    /**
+     * null when the response has no usable summary: nothing is saved, so the summary job is
+     * retried instead of being completed with a placeholder
+     */
     private SimplifiedQuestionRequest parseSimplifiedQuestion(String jsonResponse, QuestionRequest originalRequest){
-        // Create fallback value
-        SimplifiedQuestionRequest fallback = SimplifiedQuestionRequest.builder()
-            ._id(originalRequest._id())
-            .question(originalRequest.question())
-            .category(originalRequest.category())
-            .expYears(originalRequest.expYears())
-            .simplifiedDetail("요약 생성 실패")
-            .build();
-            
         try {
-            var result = parseJsonWithFallback(jsonResponse, SimplifiedQuestionRequest.class, fallback);
+            var result = parseJsonWithFallback(jsonResponse, SimplifiedQuestionRequest.class, null);
             
             // Validate essential fields
-            if (result != null && result.question() != null) {
-                return result;
-            } else {
-                log.warn("Parsed SimplifiedQuestionRequest has null essential fields, using fallback");
-                return fallback;
+            if (result == null || result.simplifiedDetail() == null || result.simplifiedDetail().isBlank()) {
+                log.warn("No SimplifiedQuestion in response for {}", originalRequest._id());
+                return null;
             }
+            // keep identifying fields from the stored question, only the summary comes from the model
+            return SimplifiedQuestionRequest.builder()
+                ._id(originalRequest._id())
+                .question(result.question() != null ? result.question() : originalRequest.question())
+                .simplifiedDetail(result.simplifiedDetail())
+                .category(originalRequest.category())
+                .expYears(originalRequest.expYears())
+                .build();
             
         } catch (Exception e) {
             log.error("Unexpected error in parseSimplifiedQuestion: {}", e.getMessage());
-            return fallback;
+            return null;
         }
     }
 
+    private Map<String, SimplifiedQuestionRequest> parseSimplifiedQuestions(String jsonResponse, Map<String, QuestionRequest> requests){
+        var parsed = parseJsonWithFallback(jsonResponse, SimplifiedQuestionRequest[].class, new SimplifiedQuestionRequest[0]);
+        Map<String, SimplifiedQuestionRequest> result = new HashMap<>();
+        for (SimplifiedQuestionRequest item : parsed) {
+            QuestionRequest original = item == null ? null : requests.get(item._id());
+            if (original == null || item.simplifiedDetail() == null) {
+                continue;
+            }
+            // keep identifying fields from the stored question, only the summary comes from the model
+            result.put(original._id(), SimplifiedQuestionRequest.builder()
+                ._id(original._id())
+                .question(item.question() != null ? item.question() : original.question())
+                .simplifiedDetail(item.simplifiedDetail())
+                .category(original.category())
+                .expYears(original.expYears())
+                .build());
+        }
+        log.info("Batch SimplifiedQuestion response covered {} of {} questions", result.size(), requests.size());
+        return result;
+    }
+
     /**
      * Common robust JSON parsing utility with multiple fallback strategies
      */
@@ -268,17 +577,16 @@ public class QuestionManageService {
             // Strategy 1: Standard JSON parsing
             String cleanJson = JsonStringUtil.extractJsonFromResponse(jsonResponse);
             log.debug("Parsing JSON for {}: {}", targetClass.getSimpleName(), cleanJson);
-            return objectMapper.readValue(cleanJson, targetClass);
+            return jsonCodecs.read(cleanJson, targetClass);
             
         } catch (JsonProcessingException e1) {
             log.warn("Standard JSON parsing failed for {}, trying enhanced cleaning: {}", targetClass.getSimpleName(), e1.getMessage());
             
-            // Strategy 2: Enhanced JSON cleaning
+            // Strategy 2: Lenient JSON repair
             try {
-                String enhancedCleanJson = JsonStringUtil.extractAndCleanJsonFromResponse(jsonResponse);
-                return objectMapper.readValue(enhancedCleanJson, targetClass);
+                return jsonCodecs.readLenient(jsonResponse, targetClass);
                 
-            } catch (JsonProcessingException e2) {
+            } catch (IOException e2) {
                 log.error("Enhanced JSON cleaning also failed for {}: {}", targetClass.getSimpleName(), e2.getMessage());
                 log.error("Failed JSON content: {}", jsonResponse);
                 return fallbackValue;
@@ -290,7 +598,7 @@ public class QuestionManageService {
         }
     }
 
-    private String questionCreationPrompt = """ 
+    private final PromptTemplate questionCreationPrompt = PromptTemplate.compile(""" 
             You are a developer interviewer.
             Please create a question that you would like to ask the developer of year {expYears} about technology stack {category} for the interview.
             In addition, please refer to the past records to give new question or advanced question.
@@ -302,9 +610,9 @@ public class QuestionManageService {
             {
                 "question": "question"
             }            
-    """;
+    """, "history", "category", "expYears");
 
-    private String questionGradingPrompt ="""
+    private final PromptTemplate questionGradingPrompt = PromptTemplate.compile("""
             You are a developer interviewer.
             Please grade the question with the user's answer.
             consider developer's experience years making model answer to grade the question.
@@ -327,9 +635,9 @@ public class QuestionManageService {
                 "score": 85,
                 "modelAnswer": "모델 답변 내용 (특수문자는 적절히 이스케이프 처리)"
             }
-            """;
+            """, "question");
 
-    private String questionAdditionalQuestion = """
+    private final PromptTemplate questionAdditionalQuestion = PromptTemplate.compile("""
             You are a developer interviewer.
             The records are about the questions and answers that have been asked, and the internal additional question is about the additional questions and answers that have been asked.
             now you making a new AdditionalQuestion's answer.
@@ -354,9 +662,9 @@ public class QuestionManageService {
                 }
             ]
 
-            """;
+            """, "records");
 
-    private String questionSimplifiedQuestion = """
+    private final PromptTemplate questionSimplifiedQuestion = PromptTemplate.compile("""
             It's about developer interview.
             simplify the question and answer in simplifiedDetail
             limit 100 words.
@@ -371,7 +679,26 @@ public class QuestionManageService {
                 "category": "category",
                 "expYears": "expYears"
             }
-            """;
+            """, "question");
+
+    private final PromptTemplate questionSimplifiedBatchQuestion = PromptTemplate.compile("""
+            It's about developer interview.
+            For each question record below, simplify the question and answer in simplifiedDetail.
+            limit 100 words per record.
+            Keep the _id of each record exactly as given.
+            ===========questions===========
+            {questions}
+            ===========questions===========
+            Please respond with ONLY a valid JSON array with one object per record in this exact format:
+            [
+                {
+                    "_id": "_id",
+                    "question": "question",
+                    "simplifiedDetail": "simplifiedDetail",
+                    "category": "category",
+                    "expYears": "expYears"
+                }
+            ]
+            """, "questions");
 
-            
 }
@@ -0,0 +1,133 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.service.QuestionPoolService.PoolKey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the question pool of every key in demand between the low and high watermark.
+ * A key is refilled on each refill-interval tick when it dropped below the low watermark,
+ * and right away when a claim found it empty. Questions are generated one at a time per key
+ * at background priority, and earlier pooled questions are added to the prompt history so
+ * that the pool does not fill up with the same question.
+ *
+ * Refill lag is the time from a key being seen below the low watermark until it is back at the high one.
+ */
+@Component
+@Slf4j
+public class QuestionPoolRefiller {
+
+    private final QuestionPoolService questionPoolService;
+    private final QuestionManageService questionManageService;
+    private final ModelCircuitBreaker circuitBreaker;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int concurrency;
+    private final Duration refillInterval;
+
+    private final Set<PoolKey> refilling = ConcurrentHashMap.newKeySet();
+    private final Map<PoolKey, Instant> belowSince = new ConcurrentHashMap<>();
+    private final Counter generated;
+    private final Timer refillLag;
+    private Disposable subscription;
+
+    public QuestionPoolRefiller(QuestionPoolService questionPoolService,
+                                QuestionManageService questionManageService,
+                                ModelCircuitBreaker circuitBreaker,
+                                MeterRegistry meterRegistry,
+                                @Value("${qna.pool.low-watermark:2}") int lowWatermark,
+                                @Value("${qna.pool.high-watermark:5}") int highWatermark,
+                                @Value("${qna.pool.refill-concurrency:2}") int concurrency,
+                                @Value("${qna.pool.refill-interval:PT30S}") Duration refillInterval) {
+        this.questionPoolService = questionPoolService;
+        this.questionManageService = questionManageService;
+        this.circuitBreaker = circuitBreaker;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.concurrency = concurrency;
+        this.refillInterval = refillInterval;
+
+        this.generated = Counter.builder("question.pool.generated").register(meterRegistry);
+        this.refillLag = Timer.builder("question.pool.refill.lag")
+            .description("Time from dropping below the low watermark until refilled to the high watermark")
+            .register(meterRegistry);
+        Gauge.builder("question.pool.keys.below-watermark", belowSince, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!questionPoolService.isEnabled()) {
+            return;
+        }
+        log.info("Starting question pool refiller with watermarks {}/{}", lowWatermark, highWatermark);
+        subscription = Flux.merge(
+                Flux.interval(refillInterval).onBackpressureDrop().concatMapIterable(tick -> questionPoolService.activeKeys()),
+                questionPoolService.misses())
+            .filter(key -> !circuitBreaker.isOpen())
+            .filter(refilling::add)
+            .flatMap(key -> refill(key)
+                .onErrorResume(error -> {
+                    log.warn("Question pool refill of {} {}y failed: {}", key.category(), key.expYears(), error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> refilling.remove(key)), concurrency)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> refill(PoolKey key) {
+        return questionPoolService.count(key)
+            .flatMap(count -> {
+                if (count >= lowWatermark) {
+                    return Mono.empty();
+                }
+                belowSince.putIfAbsent(key, Instant.now());
+                long missing = highWatermark - count;
+                log.info("Refilling question pool {} {}y with {} questions", key.category(), key.expYears(), missing);
+                return questionPoolService.pooledQuestions(key)
+                    .collectList()
+                    .flatMap(pooled -> {
+                        List<String> pending = new ArrayList<>(pooled);
+                        return Flux.range(0, (int) missing)
+                            .concatMap(i -> questionManageService.generatePooledQuestion(key, pending)
+                                .doOnNext(question -> {
+                                    pending.add(question.getQuestion());
+                                    generated.increment();
+                                }))
+                            .then(Mono.<Void>fromRunnable(() -> {
+                                Instant since = belowSince.remove(key);
+                                if (since != null) {
+                                    refillLag.record(Duration.between(since, Instant.now()));
+                                }
+                            }));
+                    });
+            });
+    }
+}
@@ -0,0 +1,147 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.kyn.qna.entity.PooledQuestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Pool of pre-generated, unserved questions per (category, expYears).
+ * A question is claimed with a single findAndRemove, so two requests never get the same one.
+ * Keys are kept filled (see QuestionPoolRefiller) while they are in demand.
+ * Off unless qna.pool.enabled=true, since refilling spends model quota in the background.
+ */
+@Service
+@Slf4j
+public class QuestionPoolService {
+
+    public record PoolKey(String category, int expYears) {}
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Duration idleAfter;
+
+    // last time each key was asked for
+    private final Map<PoolKey, Instant> demand = new ConcurrentHashMap<>();
+    private final Sinks.Many<PoolKey> misses = Sinks.many().multicast().directBestEffort();
+    private final Counter hits;
+    private final Counter missCount;
+
+    public QuestionPoolService(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                               @Value("${qna.pool.enabled:false}") boolean enabled,
+                               @Value("${qna.pool.max-age:P7D}") Duration maxAge,
+                               @Value("${qna.pool.idle-after:P1D}") Duration idleAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.idleAfter = idleAfter;
+        this.hits = Counter.builder("question.pool.claims").tag("result", "hit").register(meterRegistry);
+        this.missCount = Counter.builder("question.pool.claims").tag("result", "miss").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.indexOps(PooledQuestion.class)
+            .createIndex(new Index().on("category", Sort.Direction.ASC).on("expYears", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC))
+            .then(mongoTemplate.indexOps(PooledQuestion.class)
+                .createIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO)))
+            .subscribe(
+                name -> log.info("Question pool indexes ready"),
+                error -> log.error("Failed to create question pool indexes: {}", error.getMessage())
+            );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Atomically take the oldest pooled question of the key, empty when the pool is empty.
+     */
+    public Mono<PooledQuestion> claim(String category, Integer expYears) {
+        if (!enabled || category == null || expYears == null) {
+            return Mono.empty();
+        }
+        PoolKey key = new PoolKey(category, expYears);
+        demand.put(key, Instant.now());
+        Query query = byKey(key)
+            .addCriteria(Criteria.where("expiresAt").gt(Instant.now()))
+            .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        return mongoTemplate.findAndRemove(query, PooledQuestion.class)
+            .doOnNext(pooled -> {
+                hits.increment();
+                log.info("Question served from pool: {} {}y", category, expYears);
+            })
+            .switchIfEmpty(Mono.fromRunnable(() -> {
+                missCount.increment();
+                misses.tryEmitNext(key);
+            }));
+    }
+
+    public Mono<PooledQuestion> add(PoolKey key, String question) {
+        Instant now = Instant.now();
+        return mongoTemplate.insert(PooledQuestion.builder()
+            .question(question)
+            .category(key.category())
+            .expYears(key.expYears())
+            .createdAt(now)
+            .expiresAt(now.plus(maxAge))
+            .build());
+    }
+
+    public Mono<Long> count(PoolKey key) {
+        return mongoTemplate.count(byKey(key).addCriteria(Criteria.where("expiresAt").gt(Instant.now())),
+            PooledQuestion.class);
+    }
+
+    public Flux<String> pooledQuestions(PoolKey key) {
+        Query query = byKey(key);
+        query.fields().include("question");
+        return mongoTemplate.find(query, PooledQuestion.class).map(PooledQuestion::getQuestion);
+    }
+
+    /**
+     * Keys asked for within idle-after; idle keys are dropped and left to expire.
+     */
+    public Set<PoolKey> activeKeys() {
+        Instant idleBefore = Instant.now().minus(idleAfter);
+        demand.values().removeIf(lastDemand -> lastDemand.isBefore(idleBefore));
+        return Set.copyOf(demand.keySet());
+    }
+
+    /**
+     * Keys whose claim found the pool empty, for an immediate refill.
+     */
+    public Flux<PoolKey> misses() {
+        return misses.asFlux();
+    }
+
+    private static Query byKey(PoolKey key) {
+        return Query.query(Criteria.where("category").is(key.category()).and("expYears").is(key.expYears()));
+    }
+}
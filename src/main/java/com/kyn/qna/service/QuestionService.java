@@ -1,11 +1,18 @@
 package com.kyn.qna.service;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import com.kyn.qna.dto.AdditionalQuestion;
 import com.kyn.qna.dto.QuestionRequest;
 import com.kyn.qna.dto.SimplifiedQuestionRequest;
 import com.kyn.qna.entity.Question;
@@ -16,6 +23,7 @@ import com.kyn.qna.repository.SimplifiedQuestionRepository;
 import com.google.genai.types.Tool;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -25,6 +33,7 @@ public class QuestionService {
     
     private final QuestionRepository questionRepository;
     private final SimplifiedQuestionRepository simplifiedQuestionRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
     
     /**
      * Get all questions
@@ -43,6 +52,14 @@ public class QuestionService {
         return questionRepository.findById(id);
     }
     
+    /**
+     * Get questions by IDs
+     */
+    public Flux<Question> getQuestionsByIds(Collection<String> ids) {
+        log.info("Executing: getQuestionsByIds({})", ids);
+        return questionRepository.findAllById(ids);
+    }
+    
     /**
      * Search questions by category
      */
@@ -51,6 +68,14 @@ public class QuestionService {
         return questionRepository.findByCategory(category);
     }
     
+    /**
+     * Get a random stored question by category and expYears
+     */
+    public Mono<Question> getRandomQuestion(String category, int expYears) {
+        log.info("Executing: getRandomQuestion({}, {})", category, expYears);
+        return questionRepository.findRandomByCategoryAndExpYears(category, expYears);
+    }
+
     /**
      * Get question count by category
      */
@@ -67,17 +92,70 @@ public class QuestionService {
         return questionRepository.save(question);
     }
 
+    /*
+     * Updates are a single findAndModify that sets only the given fields and returns the updated
+     * Question, instead of reading the document and saving all of it back.
+     */
+
     public Mono<Question> update(QuestionRequest questionRequest) {
-        return questionRepository.findById(questionRequest._id())
-        .flatMap(existingQuestion -> {
-            existingQuestion.setQuestion(questionRequest.question());
-            existingQuestion.setUserAnswer(questionRequest.userAnswer());
-            existingQuestion.setAdditionalQuestions(questionRequest.additionalQuestions());
-            existingQuestion.setModelAnswer(questionRequest.modelAnswer());
-            existingQuestion.setScore(questionRequest.score());
-            existingQuestion.setUpdatedAt(LocalDateTime.now());
-            return questionRepository.save(existingQuestion);
-        });
+        return modify(questionRequest._id(), new Update()
+            .set("question", questionRequest.question())
+            .set("userAnswer", questionRequest.userAnswer())
+            .set("additionalQuestions", questionRequest.additionalQuestions())
+            .set("modelAnswer", questionRequest.modelAnswer())
+            .set("score", questionRequest.score())
+            .set("updatedAt", LocalDateTime.now()));
+    }
+
+    /**
+     * Store a graded answer, leaving additionalQuestions untouched
+     */
+    public Mono<Question> updateGrade(QuestionRequest questionRequest) {
+        return modify(questionRequest._id(), new Update()
+            .set("question", questionRequest.question())
+            .set("userAnswer", questionRequest.userAnswer())
+            .set("modelAnswer", questionRequest.modelAnswer())
+            .set("score", questionRequest.score())
+            .set("updatedAt", LocalDateTime.now()));
+    }
+
+    /**
+     * Append the additional questions after the first storedCount, which are already stored.
+     * Only applies while the stored array still has exactly storedCount entries; otherwise
+     * (a concurrent follow-up, or a client with a stale copy) the whole array is set.
+     */
+    public Mono<Question> appendAdditionalQuestions(QuestionRequest questionRequest, int storedCount) {
+        List<AdditionalQuestion> additionalQuestions = questionRequest.additionalQuestions() == null
+            ? List.of()
+            : questionRequest.additionalQuestions();
+        if (storedCount > additionalQuestions.size()) {
+            return update(questionRequest);
+        }
+        Criteria storedSize = Criteria.where("_id").is(questionRequest._id())
+            .and("additionalQuestions." + storedCount).exists(false);
+        if (storedCount > 0) {
+            storedSize = storedSize.and("additionalQuestions." + (storedCount - 1)).exists(true);
+        }
+        Update append = new Update()
+            .push("additionalQuestions").each(additionalQuestions.subList(storedCount, additionalQuestions.size()).toArray())
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(Query.query(storedSize), append,
+                FindAndModifyOptions.options().returnNew(true), Question.class)
+            .switchIfEmpty(Mono.defer(() -> update(questionRequest)));
+    }
+
+    /**
+     * Append the additional questions after whatever is stored, without replacing any of it.
+     */
+    public Mono<Question> pushAdditionalQuestions(String id, List<AdditionalQuestion> additionalQuestions) {
+        return modify(id, new Update()
+            .push("additionalQuestions").each(additionalQuestions.toArray())
+            .set("updatedAt", LocalDateTime.now()));
+    }
+
+    private Mono<Question> modify(String id, Update update) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)), update,
+            FindAndModifyOptions.options().returnNew(true), Question.class);
     }
 
     public Mono<SimplifiedQuestion> saveSimplifiedQuestion(SimplifiedQuestionRequest request){
@@ -90,4 +168,11 @@ public class QuestionService {
     public Flux<SimplifiedQuestion> getSimplifiedQuestionByCategory(String category){
         return simplifiedQuestionRepository.findByCategory(category);
     }
+
+    /**
+     * Newest SimplifiedQuestions of a category, projected to the fields used in prompts
+     */
+    public Flux<SimplifiedQuestion> getSimplifiedQuestionHistory(String category, int limit){
+        return simplifiedQuestionRepository.findHistoryByCategory(category, PageRequest.of(0, limit));
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.kyn.qna.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kyn.qna.dto.ModelCallPolicy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Applies a ModelCallPolicy to a model call: per attempt timeout, retries with jittered
+ * exponential backoff and an optional hedged second attempt.
+ *
+ * The hedge is sent once the first attempt has been running longer than the configured
+ * percentile of recent latencies for the same key, and the slower attempt is cancelled.
+ * Retries and hedges are paid from a shared retry budget that is refilled by successful
+ * calls, so a failing provider does not get multiplied load.
+ */
+@Component
+@Slf4j
+public class ResilientCallExecutor {
+
+    private final LatencyTracker latencyTracker;
+    private final double budgetRefillPerSuccess;
+    private final double budgetMax;
+    private double budget;
+
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter budgetExhausted;
+
+    public ResilientCallExecutor(LatencyTracker latencyTracker, MeterRegistry meterRegistry,
+                                 @Value("${gemini.retry-budget.refill-per-success:0.2}") double budgetRefillPerSuccess,
+                                 @Value("${gemini.retry-budget.max:20}") double budgetMax) {
+        this.latencyTracker = latencyTracker;
+        this.budgetRefillPerSuccess = budgetRefillPerSuccess;
+        this.budgetMax = budgetMax;
+        this.budget = budgetMax;
+        this.retries = Counter.builder("gemini.resilience.retries").register(meterRegistry);
+        this.hedges = Counter.builder("gemini.resilience.hedges").register(meterRegistry);
+        this.budgetExhausted = Counter.builder("gemini.resilience.budget.exhausted").register(meterRegistry);
+        Gauge.builder("gemini.resilience.budget", this, executor -> executor.availableBudget()).register(meterRegistry);
+    }
+
+    public Mono<String> execute(String key, ModelCallPolicy policy, Supplier<Mono<String>> attempt) {
+        Mono<String> call = policy.hedge() ? hedged(key, policy, attempt) : attempt(policy, attempt);
+        if (policy.maxRetries() <= 0) {
+            return call.doOnSuccess(result -> deposit());
+        }
+        return call
+            .retryWhen(Retry.backoff(policy.maxRetries(), policy.retryBackoff())
+                .jitter(0.5)
+                .filter(error -> isRetryable(error) && withdraw())
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    log.warn("Retrying model call {} (attempt {}): {}", key, signal.totalRetries() + 2,
+                        signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .doOnSuccess(result -> deposit());
+    }
+
+    private Mono<String> attempt(ModelCallPolicy policy, Supplier<Mono<String>> attempt) {
+        return Mono.defer(attempt).timeout(policy.attemptTimeout());
+    }
+
+    private Mono<String> hedged(String key, ModelCallPolicy policy, Supplier<Mono<String>> attempt) {
+        return Mono.defer(() -> {
+            Duration delay = latencyTracker.percentile(key, policy.hedgePercentile())
+                .map(observed -> observed.compareTo(policy.minHedgeDelay()) > 0 ? observed : policy.minHedgeDelay())
+                .orElse(null);
+            if (delay == null) {
+                return attempt(policy, attempt);
+            }
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<String> primary = attempt(policy, attempt)
+                .doOnError(error -> {
+                    primaryError.set(error);
+                    primaryFailed.tryEmitValue(true);
+                });
+            // no hedge once the primary attempt failed, the retry policy takes over from there
+            Mono<String> backup = Mono.delay(delay)
+                .takeUntilOther(primaryFailed.asMono())
+                .filter(tick -> withdraw())
+                .flatMap(tick -> {
+                    hedges.increment();
+                    log.info("Hedging model call {} after {} ms", key, delay.toMillis());
+                    return attempt(policy, attempt);
+                });
+
+            return Mono.firstWithValue(primary, backup)
+                .onErrorResume(NoSuchElementException.class, error -> primaryError.get() != null
+                    ? Mono.error(primaryError.get())
+                    : Mono.empty());
+        });
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof ResponseStatusException) {
+            // shed by our own limiter or deadline, retrying would only add load
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return AdaptiveConcurrencyLimiter.isOverload(error);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget >= 1) {
+            budget -= 1;
+            return true;
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(budgetMax, budget + budgetRefillPerSuccess);
+    }
+
+    private synchronized double availableBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,175 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.dto.ModelTask;
+import com.kyn.qna.entity.CachedResponse;
+import com.kyn.qna.repository.CachedResponseRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Two-tier cache for model responses.
+ * L1 - in-process LRU bounded by the estimated size of the cached strings
+ * L2 - responseCache collection with a TTL index, shared by all nodes
+ * Entries are keyed by task and prompt (see key); the model that produced an entry is only recorded.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final CachedResponseRepository cachedResponseRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> l1 = new LinkedHashMap<>(256, 0.75f, true);
+    private long l1Bytes;
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ResponseCache(CachedResponseRepository cachedResponseRepository,
+                         ReactiveMongoTemplate mongoTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${gemini.cache.l1-max-bytes:16777216}") long maxBytes) {
+        this.cachedResponseRepository = cachedResponseRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.maxBytes = maxBytes;
+        this.l1Hits = Counter.builder("gemini.cache.requests").tag("result", "l1").register(meterRegistry);
+        this.l2Hits = Counter.builder("gemini.cache.requests").tag("result", "l2").register(meterRegistry);
+        this.misses = Counter.builder("gemini.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("gemini.cache.evictions").register(meterRegistry);
+        Gauge.builder("gemini.cache.l1.bytes", this, cache -> cache.l1Bytes()).register(meterRegistry);
+        Gauge.builder("gemini.cache.l1.entries", this, cache -> cache.l1Size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createTtlIndex() {
+        mongoTemplate.indexOps(CachedResponse.class)
+            .createIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO))
+            .subscribe(
+                name -> log.info("Response cache TTL index ready: {}", name),
+                error -> log.error("Failed to create response cache TTL index: {}", error.getMessage())
+            );
+    }
+
+    public static String key(ModelTask task, String prompt) {
+        return task.name() + ":" + PromptCoalescer.hash(prompt);
+    }
+
+    public Mono<String> get(String key) {
+        return Mono.defer(() -> {
+            String cached = getLocal(key);
+            if (cached != null) {
+                l1Hits.increment();
+                return Mono.just(cached);
+            }
+            return cachedResponseRepository.findById(key)
+                .filter(document -> document.getExpiresAt().isAfter(Instant.now()))
+                .doOnNext(document -> {
+                    l2Hits.increment();
+                    putLocal(key, document.getResponse(), document.getExpiresAt());
+                })
+                .map(CachedResponse::getResponse)
+                .onErrorResume(error -> {
+                    log.warn("Response cache lookup failed for {}: {}", key, error.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromRunnable(misses::increment));
+        });
+    }
+
+    /**
+     * Stores the response in L1 immediately and writes L2 in the background.
+     */
+    public void put(String key, String model, String response, Duration ttl) {
+        if (response == null || response.isBlank()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        putLocal(key, response, expiresAt);
+        cachedResponseRepository.save(CachedResponse.builder()
+                ._id(key)
+                .model(model)
+                .response(response)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .build())
+            .subscribe(
+                saved -> log.debug("Response cached: {}", key),
+                error -> log.warn("Failed to write response cache for {}: {}", key, error.getMessage())
+            );
+    }
+
+    private synchronized String getLocal(String key) {
+        Entry entry = l1.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private synchronized void putLocal(String key, String value, Instant expiresAt) {
+        long size = sizeOf(key, value);
+        if (size > maxBytes) {
+            return;
+        }
+        remove(key);
+        l1.put(key, new Entry(value, expiresAt, size));
+        l1Bytes += size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = l1.entrySet().iterator();
+        while (l1Bytes > maxBytes && eldest.hasNext()) {
+            l1Bytes -= eldest.next().getValue().size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = l1.remove(key);
+        if (removed != null) {
+            l1Bytes -= removed.size();
+        }
+    }
+
+    private synchronized long l1Bytes() {
+        return l1Bytes;
+    }
+
+    private synchronized int l1Size() {
+        return l1.size();
+    }
+
+    private static long sizeOf(String key, String value) {
+        // strings are at most two bytes per char
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length());
+    }
+
+    private record Entry(String value, Instant expiresAt, long size) {}
+}
@@ -0,0 +1,152 @@
+package com.kyn.qna.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.kyn.qna.entity.SummaryJob;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mongo backed queue of SimplifiedQuestion generation jobs.
+ * Workers claim a job by taking a lease with findAndModify; a job whose lease
+ * expired (e.g. the node died) becomes claimable again.
+ * The lease outlasts the worker's job timeout (about 13 minutes under the default
+ * BACKGROUND policy), so a running batch is not claimed twice.
+ */
+@Service
+@Slf4j
+public class SummaryJobService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration leaseDuration;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    public SummaryJobService(ReactiveMongoTemplate mongoTemplate,
+                             @Value("${summary.job.lease:PT15M}") Duration leaseDuration,
+                             @Value("${summary.job.max-attempts:5}") int maxAttempts,
+                             @Value("${summary.job.base-backoff:PT5S}") Duration baseBackoff,
+                             @Value("${summary.job.max-backoff:PT10M}") Duration maxBackoff) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseDuration = leaseDuration;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public Duration leaseDuration() {
+        return leaseDuration;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        mongoTemplate.indexOps(SummaryJob.class)
+            .createIndex(new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC))
+            .then(mongoTemplate.indexOps(SummaryJob.class)
+                .createIndex(new Index().on("status", Sort.Direction.ASC).on("leaseExpiresAt", Sort.Direction.ASC)))
+            .subscribe(
+                name -> log.info("Summary job indexes ready"),
+                error -> log.error("Failed to create summary job indexes: {}", error.getMessage())
+            );
+    }
+
+    /**
+     * Enqueue (or reset) the job for a question.
+     */
+    public Mono<Void> enqueue(String questionId) {
+        Instant now = Instant.now();
+        Update update = new Update()
+            .set("status", SummaryJob.Status.PENDING.name())
+            .set("attempts", 0)
+            .set("nextAttemptAt", now)
+            .set("enqueuedAt", now)
+            .set("updatedAt", now)
+            .unset("leaseOwner")
+            .unset("leaseExpiresAt")
+            .unset("lastError");
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(questionId)), update, SummaryJob.class)
+            .doOnSuccess(result -> log.debug("Summary job enqueued: {}", questionId))
+            .then();
+    }
+
+    /**
+     * Claim the next due job, or a job whose lease has expired.
+     */
+    public Mono<SummaryJob> claim(String owner) {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(SummaryJob.Status.PENDING.name()).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(SummaryJob.Status.RUNNING.name()).and("leaseExpiresAt").lte(now)))
+            .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update update = new Update()
+            .set("status", SummaryJob.Status.RUNNING.name())
+            .set("leaseOwner", owner)
+            .set("leaseExpiresAt", now.plus(leaseDuration))
+            .set("updatedAt", now)
+            .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), SummaryJob.class);
+    }
+
+    /**
+     * Remove a finished job. A job that was re-enqueued while running is left for the next run.
+     */
+    public Mono<Boolean> complete(SummaryJob job, String owner) {
+        return mongoTemplate.remove(leased(job, owner), SummaryJob.class)
+            .map(result -> result.getDeletedCount() > 0);
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or park the job as FAILED after the last attempt.
+     */
+    public Mono<Void> fail(SummaryJob job, String owner, Throwable error) {
+        Instant now = Instant.now();
+        Update update = new Update()
+            .set("lastError", String.valueOf(error.getMessage()))
+            .set("updatedAt", now)
+            .unset("leaseOwner")
+            .unset("leaseExpiresAt");
+        if (job.getAttempts() >= maxAttempts) {
+            update.set("status", SummaryJob.Status.FAILED.name());
+            log.error("Summary job {} failed after {} attempts: {}", job.get_id(), job.getAttempts(), error.getMessage());
+        } else {
+            update.set("status", SummaryJob.Status.PENDING.name())
+                .set("nextAttemptAt", now.plus(backoff(job.getAttempts())));
+            log.warn("Summary job {} attempt {} failed, retrying: {}", job.get_id(), job.getAttempts(), error.getMessage());
+        }
+        return mongoTemplate.updateFirst(leased(job, owner), update, SummaryJob.class).then();
+    }
+
+    public Mono<Long> countOutstanding() {
+        return mongoTemplate.count(Query.query(Criteria.where("status")
+                .in(SummaryJob.Status.PENDING.name(), SummaryJob.Status.RUNNING.name())), SummaryJob.class);
+    }
+
+    private Query leased(SummaryJob job, String owner) {
+        return Query.query(Criteria.where("_id").is(job.get_id())
+            .and("status").is(SummaryJob.Status.RUNNING.name())
+            .and("leaseOwner").is(owner));
+    }
+
+    private Duration backoff(int attempts) {
+        long millis = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+        millis = Math.min(millis, maxBackoff.toMillis());
+        // full jitter on the upper half so retries from a burst spread out
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+}
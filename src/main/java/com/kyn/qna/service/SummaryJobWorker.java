@@ -0,0 +1,212 @@
+package com.kyn.qna.service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.kyn.qna.config.ModelCallPolicyProperties;
+import com.kyn.qna.dto.ModelCallPolicy;
+import com.kyn.qna.entity.SimplifiedQuestion;
+import com.kyn.qna.entity.SummaryJob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drains the summary job queue with a bounded number of concurrent batches per node.
+ * Jobs that became due within one poll interval are claimed together (up to batch-size)
+ * and summarized with a single model call.
+ *
+ * A batch is given as long as its model calls may take under the simplified-question policy
+ * (summary.worker.job-timeout overrides it), see jobTimeout(ModelCallPolicy). The job lease
+ * (summary.job.lease) must be longer, otherwise a slow batch is claimed again by another worker.
+ */
+@Component
+@Slf4j
+public class SummaryJobWorker {
+
+    private final SummaryJobService summaryJobService;
+    private final QuestionService questionService;
+    private final QuestionManageService questionManageService;
+    private final String owner;
+    private final int concurrency;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration jobTimeout;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final Counter completed;
+    private final Counter failed;
+    private final Timer jobLatency;
+    private Disposable subscription;
+
+    public SummaryJobWorker(SummaryJobService summaryJobService,
+                            QuestionService questionService,
+                            QuestionManageService questionManageService,
+                            ModelCallPolicyProperties policies,
+                            MeterRegistry meterRegistry,
+                            @Value("${summary.worker.concurrency:4}") int concurrency,
+                            @Value("${summary.worker.batch-size:10}") int batchSize,
+                            @Value("${summary.worker.poll-interval:PT2S}") Duration pollInterval,
+                            @Value("${summary.worker.job-timeout:#{null}}") Duration jobTimeout) {
+        this.summaryJobService = summaryJobService;
+        this.questionService = questionService;
+        this.questionManageService = questionManageService;
+        this.owner = hostName() + "-" + UUID.randomUUID();
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.jobTimeout = jobTimeout != null
+            ? jobTimeout
+            : jobTimeout(policies.policy("simplified-question", ModelCallPolicy.BACKGROUND));
+        if (this.jobTimeout.compareTo(summaryJobService.leaseDuration()) > 0) {
+            log.warn("Summary job timeout {} is longer than the job lease {}, slow batches will be claimed twice",
+                this.jobTimeout, summaryJobService.leaseDuration());
+        }
+
+        this.completed = Counter.builder("summary.jobs").tag("result", "completed").register(meterRegistry);
+        this.failed = Counter.builder("summary.jobs").tag("result", "failed").register(meterRegistry);
+        this.jobLatency = Timer.builder("summary.jobs.latency")
+            .description("Time from enqueue to completion")
+            .register(meterRegistry);
+        Gauge.builder("summary.jobs.queue", outstanding, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("summary.batches.running", running, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Worst case of one batch: the batch call with all of its retries, then the single calls for the
+     * questions it did not cover, which run in parallel under the same policy. Each attempt timeout
+     * already includes the wait for quota and for a background limiter permit.
+     */
+    static Duration jobTimeout(ModelCallPolicy policy) {
+        Duration attempts = policy.attemptTimeout().multipliedBy(policy.maxRetries() + 1L);
+        // the backoff doubles per retry and the jitter adds up to half of it
+        Duration backoff = policy.retryBackoff().multipliedBy((1L << policy.maxRetries()) - 1).multipliedBy(3).dividedBy(2);
+        return attempts.plus(backoff).multipliedBy(2);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting summary job worker {} with concurrency {} and batch size {}", owner, concurrency, batchSize);
+        subscription = Flux.interval(pollInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> poll()
+                .onErrorResume(error -> {
+                    log.warn("Summary job poll failed: {}", error.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> poll() {
+        return summaryJobService.countOutstanding()
+            .doOnNext(outstanding::set)
+            .then(Mono.defer(this::dispatchBatches));
+    }
+
+    private Mono<Void> dispatchBatches() {
+        if (running.get() >= concurrency) {
+            return Mono.empty();
+        }
+        return claimUpTo(batchSize)
+            .collectList()
+            .flatMap(jobs -> {
+                if (jobs.isEmpty()) {
+                    return Mono.empty();
+                }
+                running.incrementAndGet();
+                processBatch(jobs)
+                    .doFinally(signal -> running.decrementAndGet())
+                    .subscribe();
+                // a full batch means more jobs are probably waiting
+                return jobs.size() == batchSize ? dispatchBatches() : Mono.empty();
+            });
+    }
+
+    private Flux<SummaryJob> claimUpTo(int count) {
+        AtomicInteger claimed = new AtomicInteger(1);
+        return summaryJobService.claim(owner)
+            .expand(job -> claimed.getAndIncrement() < count ? summaryJobService.claim(owner) : Mono.empty());
+    }
+
+    private Mono<Void> processBatch(List<SummaryJob> jobs) {
+        List<String> ids = jobs.stream().map(SummaryJob::get_id).toList();
+        return questionService.getQuestionsByIds(ids)
+            .collectList()
+            .flatMapMany(questionManageService::saveSimplifiedQuestions)
+            .map(SimplifiedQuestion::get_id)
+            .collect(Collectors.toSet())
+            .timeout(jobTimeout)
+            .onErrorResume(error -> {
+                log.warn("Summary batch of {} failed: {}", jobs.size(), error.getMessage());
+                return Mono.just(Set.<String>of());
+            })
+            .flatMapMany(savedIds -> Flux.fromIterable(jobs)
+                .flatMap(job -> savedIds.contains(job.get_id())
+                    ? complete(job)
+                    : fail(job, new IllegalStateException("SimplifiedQuestion not generated for " + job.get_id()))))
+            .then();
+    }
+
+    private Mono<Void> complete(SummaryJob job) {
+        return summaryJobService.complete(job, owner)
+            .doOnNext(removed -> {
+                if (!removed) {
+                    // re-enqueued while running, or the lease expired and another worker owns the job
+                    log.info("Summary job {} is no longer leased by this worker, left in the queue", job.get_id());
+                    return;
+                }
+                completed.increment();
+                jobLatency.record(Duration.between(job.getEnqueuedAt(), Instant.now()));
+                log.info("SimplifiedQuestion saved successfully: {}", job.get_id());
+            })
+            .then()
+            .onErrorResume(error -> {
+                log.error("Failed to complete summary job {}: {}", job.get_id(), error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> fail(SummaryJob job, Throwable error) {
+        failed.increment();
+        return summaryJobService.fail(job, owner, error)
+            .onErrorResume(updateError -> {
+                log.error("Failed to update summary job {}: {}", job.get_id(), updateError.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.kyn.qna.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.kyn.qna.exception.ModelDeadlineExceededException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class DeadlineUtil {
+
+    /**
+     * Deadline from a client supplied timeout in milliseconds, or the endpoint default
+     */
+    public static Instant fromTimeout(Long timeoutMs, Duration defaultTimeout) {
+        Duration timeout = timeoutMs != null && timeoutMs > 0 ? Duration.ofMillis(timeoutMs) : defaultTimeout;
+        return Instant.now().plus(timeout);
+    }
+
+    public static Duration remaining(Instant deadline) {
+        return Duration.between(Instant.now(), deadline);
+    }
+
+    /**
+     * Cancel the given chain when the deadline passes; cancellation propagates upstream to the model call.
+     * A null deadline means no limit.
+     */
+    public static <T> Mono<T> within(Mono<T> mono, Instant deadline) {
+        if (deadline == null) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            Duration remaining = remaining(deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Mono.error(new ModelDeadlineExceededException("Request deadline already passed"));
+            }
+            // only the deadline's own expiry becomes a deadline error, timeouts raised upstream pass through
+            return mono.timeout(remaining, Mono.error(DeadlineUtil::exceeded));
+        });
+    }
+
+    /**
+     * Same as within(Mono, Instant) for a stream: the whole stream, not each element, must complete before the deadline.
+     */
+    public static <T> Flux<T> within(Flux<T> flux, Instant deadline) {
+        if (deadline == null) {
+            return flux;
+        }
+        return Flux.defer(() -> {
+            Duration remaining = remaining(deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Flux.error(new ModelDeadlineExceededException("Request deadline already passed"));
+            }
+            // re-armed on every element with the time left until the deadline
+            Mono<Long> expiry = Mono.defer(() -> {
+                Duration left = remaining(deadline);
+                return Mono.delay(left.isNegative() ? Duration.ZERO : left);
+            });
+            return flux.timeout(expiry, element -> expiry, Flux.defer(() -> Flux.error(exceeded())));
+        });
+    }
+
+    private static ModelDeadlineExceededException exceeded() {
+        return new ModelDeadlineExceededException("Request deadline exceeded");
+    }
+}
@@ -0,0 +1,254 @@
+package com.kyn.qna.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Push based JSON parser for streamed model output.
+ * Chunks are fed as they arrive and field events are emitted as soon as they are known:
+ * - TEXT: text appended to a string value since the last chunk, so long values can be shown while they grow
+ * - VALUE: a complete value (String, Long, Double, Boolean or null)
+ * - END: an object or array was closed, e.g. one element of an array of objects
+ *
+ * Paths are dotted keys with array indices, e.g. "score" or "[0].answer".
+ * Anything before the first { or [ (code fences, prose) and after the top level value is skipped,
+ * and tokens split across chunks (escapes, numbers, literals) are completed with the next chunk.
+ * The top level value is always an object or array, so a literal is only complete at its delimiter:
+ * a value cut off by the end of the stream (e.g. 8 of 85) is never reported as a VALUE, and
+ * isComplete() tells whether the top level value was closed.
+ * The parser is not thread safe; use one instance per stream.
+ */
+public final class IncrementalJsonParser {
+
+    public enum EventType { TEXT, VALUE, END }
+
+    public record Event(EventType type, String path, String text, Object value) {
+        static Event text(String path, String text) {
+            return new Event(EventType.TEXT, path, text, null);
+        }
+
+        static Event value(String path, Object value) {
+            return new Event(EventType.VALUE, path, null, value);
+        }
+
+        static Event end(String path) {
+            return new Event(EventType.END, path, null, null);
+        }
+    }
+
+    private enum State { BEFORE_ROOT, EXPECT_KEY, IN_KEY, EXPECT_COLON, EXPECT_VALUE, IN_STRING, IN_LITERAL, AFTER_VALUE, DONE }
+
+    private static final class Frame {
+        private final boolean object;
+        private final String path;
+        private String key;
+        private int index = -1;
+
+        private Frame(boolean object, String path) {
+            this.object = object;
+            this.path = path;
+        }
+    }
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private State state = State.BEFORE_ROOT;
+    private final StringBuilder token = new StringBuilder();
+    private final StringBuilder delta = new StringBuilder();
+    private String valuePath;
+    // 0 outside an escape, 1 after a backslash, 2..5 while reading \\uXXXX digits
+    private int escape;
+    private int unicode;
+
+    /**
+     * Parse a stream of chunks.
+     */
+    public static Flux<Event> parse(Flux<String> chunks) {
+        return Flux.defer(() -> {
+            IncrementalJsonParser parser = new IncrementalJsonParser();
+            return chunks.concatMapIterable(parser::feed);
+        });
+    }
+
+    public List<Event> feed(String chunk) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < chunk.length() && state != State.DONE; i++) {
+            accept(chunk.charAt(i), events);
+        }
+        if (state == State.IN_STRING && delta.length() > 0) {
+            events.add(Event.text(valuePath, delta.toString()));
+            delta.setLength(0);
+        }
+        return events;
+    }
+
+    public boolean isComplete() {
+        return state == State.DONE;
+    }
+
+    private void accept(char c, List<Event> events) {
+        switch (state) {
+            case BEFORE_ROOT:
+                if (c == '{' || c == '[') {
+                    open(c, "");
+                }
+                break;
+            case EXPECT_KEY:
+                if (c == '"') {
+                    token.setLength(0);
+                    state = State.IN_KEY;
+                } else if (c == '}') {
+                    close(events);
+                }
+                break;
+            case IN_KEY:
+                if (readStringChar(c, token)) {
+                    stack.peek().key = token.toString();
+                    state = State.EXPECT_COLON;
+                }
+                break;
+            case EXPECT_COLON:
+                if (c == ':') {
+                    state = State.EXPECT_VALUE;
+                }
+                break;
+            case EXPECT_VALUE:
+                if (Character.isWhitespace(c)) {
+                    break;
+                }
+                if (c == ']' && !stack.peek().object) {
+                    // empty array
+                    close(events);
+                    break;
+                }
+                valuePath = childPath();
+                if (c == '{' || c == '[') {
+                    open(c, valuePath);
+                } else if (c == '"') {
+                    token.setLength(0);
+                    delta.setLength(0);
+                    state = State.IN_STRING;
+                } else {
+                    token.setLength(0);
+                    token.append(c);
+                    state = State.IN_LITERAL;
+                }
+                break;
+            case IN_STRING:
+                int before = token.length();
+                if (readStringChar(c, token)) {
+                    if (delta.length() > 0) {
+                        events.add(Event.text(valuePath, delta.toString()));
+                        delta.setLength(0);
+                    }
+                    events.add(Event.value(valuePath, token.toString()));
+                    state = State.AFTER_VALUE;
+                } else if (token.length() > before) {
+                    delta.append(token, before, token.length());
+                }
+                break;
+            case IN_LITERAL:
+                if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                    events.add(Event.value(valuePath, literal(token.toString())));
+                    state = State.AFTER_VALUE;
+                    accept(c, events);
+                } else {
+                    token.append(c);
+                }
+                break;
+            case AFTER_VALUE:
+                if (c == ',') {
+                    state = stack.peek().object ? State.EXPECT_KEY : State.EXPECT_VALUE;
+                } else if (c == '}' || c == ']') {
+                    close(events);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void open(char c, String path) {
+        stack.push(new Frame(c == '{', path));
+        state = c == '{' ? State.EXPECT_KEY : State.EXPECT_VALUE;
+    }
+
+    private void close(List<Event> events) {
+        Frame frame = stack.pop();
+        events.add(Event.end(frame.path));
+        state = stack.isEmpty() ? State.DONE : State.AFTER_VALUE;
+    }
+
+    private String childPath() {
+        Frame frame = stack.peek();
+        if (frame.object) {
+            return frame.path.isEmpty() ? frame.key : frame.path + "." + frame.key;
+        }
+        frame.index++;
+        return frame.path + "[" + frame.index + "]";
+    }
+
+    /**
+     * Decode one character of a string into target. Returns true on the closing quote.
+     */
+    private boolean readStringChar(char c, StringBuilder target) {
+        if (escape == 1) {
+            escape = 0;
+            switch (c) {
+                case 'n': target.append('\n'); break;
+                case 't': target.append('\t'); break;
+                case 'r': target.append('\r'); break;
+                case 'b': target.append('\b'); break;
+                case 'f': target.append('\f'); break;
+                case 'u':
+                    escape = 2;
+                    unicode = 0;
+                    break;
+                default: target.append(c);
+            }
+            return false;
+        }
+        if (escape >= 2) {
+            int digit = Character.digit(c, 16);
+            unicode = unicode * 16 + Math.max(digit, 0);
+            if (++escape == 6) {
+                escape = 0;
+                target.append((char) unicode);
+            }
+            return false;
+        }
+        if (c == '\\') {
+            escape = 1;
+            return false;
+        }
+        if (c == '"') {
+            return true;
+        }
+        target.append(c);
+        return false;
+    }
+
+    private static Object literal(String text) {
+        switch (text) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return null;
+            default:
+                try {
+                    if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                        return Long.parseLong(text);
+                    }
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    // unquoted text, keep it as a string
+                    return text;
+                }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.kyn.qna.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Cached ObjectReader/ObjectWriter per type, all derived from the application ObjectMapper.
+ *
+ * Readers and writers are immutable and thread safe, and fetch their root (de)serializer
+ * when created, so a call only runs the (de)serializer instead of looking it up in the
+ * mapper's caches first. Types used on hot paths are created up front (see JacksonConfig),
+ * any other type on first use.
+ */
+public final class JsonCodecs {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonCodecs(ObjectMapper objectMapper, Class<?>... preloaded) {
+        this.objectMapper = objectMapper;
+        for (Class<?> type : preloaded) {
+            reader(type);
+            writer(type);
+        }
+    }
+
+    /**
+     * The mapper configuration used by the application.
+     * blackbird - generate (de)serializer accessors with LambdaMetafactory instead of reflection
+     */
+    public static ObjectMapper newObjectMapper(boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    public ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    public ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    public <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    /**
+     * Read model output after a single pass repair, see LenientJson
+     */
+    public <T> T readLenient(String text, Class<T> type) throws IOException {
+        return LenientJson.read(reader(type), text);
+    }
+
+    public String write(Object value) throws JsonProcessingException {
+        return writer(value.getClass()).writeValueAsString(value);
+    }
+}
@@ -0,0 +1,274 @@
+package com.kyn.qna.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Single pass repair of the JSON that models usually return, replacing the regex cascade.
+ *
+ * One left to right scan with a small state machine (inside/outside a string, open
+ * bracket stack, last comma) that
+ * - skips code fences and prose before the first { or [ and after the value is closed
+ * - drops trailing commas before } and ]
+ * - escapes quotes inside strings that are not followed by , : } ] or the end
+ * - escapes raw control characters and invalid backslash escapes inside strings
+ * - closes strings and brackets left open by a truncated response
+ *
+ * The repaired characters are fed to Jackson's streaming parser without building a String.
+ * Valid JSON passes through unchanged, apart from anything around the top level value.
+ */
+public final class LenientJson {
+
+    private LenientJson() {
+    }
+
+    public static <T> T read(ObjectReader reader, String text) throws IOException {
+        Buffer repaired = repair(text);
+        try (JsonParser parser = reader.createParser(repaired.chars, 0, repaired.length)) {
+            return reader.readValue(parser);
+        }
+    }
+
+    public static String repairToString(String text) {
+        Buffer repaired = repair(text);
+        return new String(repaired.chars, 0, repaired.length);
+    }
+
+    private static Buffer repair(String text) {
+        int length = text.length();
+        Buffer out = new Buffer(length + 16);
+        char[] stack = new char[16];
+        int depth = 0;
+        boolean inString = false;
+        // position of a comma that is dropped if a closing bracket follows
+        int pendingComma = -1;
+
+        int i = start(text);
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    if (i + 1 < length && isEscape(text, i + 1)) {
+                        out.append(c).append(text.charAt(++i));
+                    } else {
+                        out.append('\\').append('\\');
+                    }
+                } else if (c == '"') {
+                    if (closesString(text, i + 1, depth > 0 ? stack[depth - 1] : 0)) {
+                        out.append('"');
+                        inString = false;
+                    } else {
+                        out.append('\\').append('"');
+                    }
+                } else if (c < 0x20) {
+                    appendControl(out, c);
+                } else {
+                    out.append(c);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '{':
+                case '[':
+                    pendingComma = -1;
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = c == '{' ? '}' : ']';
+                    out.append(c);
+                    break;
+                case '}':
+                case ']':
+                    if (pendingComma >= 0) {
+                        out.remove(pendingComma);
+                        pendingComma = -1;
+                    }
+                    if (depth > 0) {
+                        out.append(stack[--depth]);
+                    }
+                    if (depth == 0) {
+                        // top level value complete, ignore whatever follows
+                        return out;
+                    }
+                    break;
+                case ',':
+                    pendingComma = out.length;
+                    out.append(c);
+                    break;
+                case '"':
+                    pendingComma = -1;
+                    inString = true;
+                    out.append(c);
+                    break;
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    out.append(c);
+                    break;
+                case '`':
+                    // closing code fence of a response cut off before its last bracket
+                    break;
+                default:
+                    pendingComma = -1;
+                    out.append(c);
+            }
+        }
+
+        // truncated response: close the open string and brackets
+        if (inString) {
+            out.append('"');
+        } else if (pendingComma >= 0) {
+            out.remove(pendingComma);
+        } else if (out.lastSignificant() == ':') {
+            out.append("null");
+        }
+        while (depth > 0) {
+            out.append(stack[--depth]);
+        }
+        return out;
+    }
+
+    /**
+     * Index of the first { or [, skipping a code fence or any prose before the JSON.
+     */
+    private static int start(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isEscape(String text, int index) {
+        char c = text.charAt(index);
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return true;
+            case 'u':
+                if (index + 4 >= text.length()) {
+                    return false;
+                }
+                for (int i = index + 1; i <= index + 4; i++) {
+                    if (Character.digit(text.charAt(i), 16) < 0) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether a quote ends the string: the next significant character must be able to follow
+     * a string in the enclosing container. Looks ahead over whitespace only, so the scan stays linear.
+     */
+    private static boolean closesString(String text, int from, char closer) {
+        int i = skipWhitespace(text, from);
+        if (i >= text.length()) {
+            return true;
+        }
+        char next = text.charAt(i);
+        if (next == ':' || next == '}' || next == ']' || next == '`') {
+            return true;
+        }
+        if (next != ',') {
+            return false;
+        }
+        // inside an object a comma is followed by the next key; in an array by any value
+        int j = skipWhitespace(text, i + 1);
+        if (j >= text.length()) {
+            return true;
+        }
+        char afterComma = text.charAt(j);
+        if (closer == '}') {
+            return afterComma == '"' || afterComma == '}';
+        }
+        return afterComma == '"' || afterComma == '{' || afterComma == '[' || afterComma == ']'
+            || afterComma == '-' || Character.isDigit(afterComma)
+            || text.startsWith("true", j) || text.startsWith("false", j) || text.startsWith("null", j);
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void appendControl(Buffer out, char c) {
+        switch (c) {
+            case '\n':
+                out.append('\\').append('n');
+                break;
+            case '\r':
+                out.append('\\').append('r');
+                break;
+            case '\t':
+                out.append('\\').append('t');
+                break;
+            case '\b':
+                out.append('\\').append('b');
+                break;
+            case '\f':
+                out.append('\\').append('f');
+                break;
+            default:
+                out.append("\\u00");
+                out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+        }
+    }
+
+    private static final class Buffer {
+        private char[] chars;
+        private int length;
+
+        private Buffer(int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        private Buffer append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[length++] = c;
+            return this;
+        }
+
+        private Buffer append(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                append(s.charAt(i));
+            }
+            return this;
+        }
+
+        private void remove(int index) {
+            System.arraycopy(chars, index + 1, chars, index, length - index - 1);
+            length--;
+        }
+
+        private char lastSignificant() {
+            for (int i = length - 1; i >= 0; i--) {
+                if (!Character.isWhitespace(chars[i])) {
+                    return chars[i];
+                }
+            }
+            return 0;
+        }
+    }
+}
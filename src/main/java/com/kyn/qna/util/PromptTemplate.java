@@ -0,0 +1,95 @@
+package com.kyn.qna.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt template parsed once into literal and placeholder segments.
+ * Placeholders look like {name}; JSON braces in the examples are left alone
+ * because they never enclose a bare identifier.
+ *
+ * Rendering is a single pass into a presized buffer, and substituted values
+ * are never scanned again, unlike chained String.replace calls.
+ */
+public final class PromptTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z_][A-Za-z0-9_]*)\\}");
+
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+    private final int arity;
+
+    private PromptTemplate(String[] literals, int[] slots, int arity) {
+        this.literals = literals;
+        this.slots = slots;
+        this.arity = arity;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parse the template and check that it uses exactly the given placeholders.
+     * Values are passed to {@link #render(Object...)} in the same order.
+     */
+    public static PromptTemplate compile(String template, String... placeholders) {
+        List<String> declared = List.of(placeholders);
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Set<String> used = new LinkedHashSet<>();
+
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        int last = 0;
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            int slot = declared.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalStateException("Prompt placeholder {" + name + "} is not supplied, declared: " + declared);
+            }
+            literals.add(template.substring(last, matcher.start()));
+            slots.add(slot);
+            used.add(name);
+            last = matcher.end();
+        }
+        literals.add(template.substring(last));
+
+        if (used.size() != declared.size()) {
+            List<String> unused = new ArrayList<>(declared);
+            unused.removeAll(used);
+            throw new IllegalStateException("Prompt placeholders " + unused + " do not appear in the template");
+        }
+
+        return new PromptTemplate(
+            literals.toArray(String[]::new),
+            slots.stream().mapToInt(Integer::intValue).toArray(),
+            declared.size());
+    }
+
+    public String render(Object... values) {
+        if (values.length != arity) {
+            throw new IllegalArgumentException("Expected " + arity + " prompt values but got " + values.length);
+        }
+        String[] strings = new String[values.length];
+        int length = literalLength;
+        for (int i = 0; i < values.length; i++) {
+            strings[i] = String.valueOf(values[i]);
+        }
+        for (int slot : slots) {
+            length += strings[slot].length();
+        }
+
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            prompt.append(literals[i]).append(strings[slots[i]]);
+        }
+        prompt.append(literals[literals.length - 1]);
+        return prompt.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.kyn.qna.provider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.kyn.qna.config.ModelCallPolicyProperties;
+import com.kyn.qna.dto.CategoryManageResult;
+import com.kyn.qna.dto.CategoryManageResult.Outcome;
+import com.kyn.qna.dto.GenerationOptions;
+import com.kyn.qna.dto.QuestionRequest;
+import com.kyn.qna.dto.SimplifiedQuestionRequest;
+import com.kyn.qna.entity.Category;
+import com.kyn.qna.entity.Question;
+import com.kyn.qna.entity.SimplifiedQuestion;
+import com.kyn.qna.service.CategoryManageService;
+import com.kyn.qna.service.CategoryService;
+import com.kyn.qna.service.CategoryService.DescriptionUpdates;
+import com.kyn.qna.service.FollowUpDraftService;
+import com.kyn.qna.service.GeminiService;
+import com.kyn.qna.service.HistorySelector;
+import com.kyn.qna.service.ModelCircuitBreaker;
+import com.kyn.qna.service.QuestionManageService;
+import com.kyn.qna.service.QuestionPoolService;
+import com.kyn.qna.service.QuestionService;
+import com.kyn.qna.service.SummaryJobService;
+import com.kyn.qna.util.JsonCodecs;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Every simulated response type goes through the parsing of the service that sends the prompt.
+ * The parsers fall back silently, so each test also checks that the parsed result is used.
+ */
+class SimulatedModelProviderTest {
+
+    private final SimulatedModelProvider simulator = new SimulatedModelProvider(JsonCodecs.newObjectMapper(false),
+        Duration.ZERO, 0.0, Duration.ZERO, 0.0, 0.0, 40, Duration.ZERO);
+    private final JsonCodecs jsonCodecs = new JsonCodecs(JsonCodecs.newObjectMapper(false));
+
+    private QuestionService questionService;
+    private GeminiService geminiService;
+    private SummaryJobService summaryJobService;
+    private HistorySelector historySelector;
+    private QuestionPoolService questionPoolService;
+    private FollowUpDraftService followUpDraftService;
+    private CategoryService categoryService;
+    private QuestionManageService questionManageService;
+    private CategoryManageService categoryManageService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        questionService = mock(QuestionService.class);
+        geminiService = mock(GeminiService.class);
+        summaryJobService = mock(SummaryJobService.class);
+        historySelector = mock(HistorySelector.class);
+        questionPoolService = mock(QuestionPoolService.class);
+        followUpDraftService = mock(FollowUpDraftService.class);
+        categoryService = mock(CategoryService.class);
+
+        // the simulator answers in place of the model, a parser must accept its response
+        when(geminiService.generateResponse(anyString(), any(GenerationOptions.class)))
+            .thenAnswer(call -> simulator.generate("simulated", call.getArgument(0)));
+        when(geminiService.generateResponse(anyString(), any(GenerationOptions.class), any(Function.class)))
+            .thenAnswer(call -> simulator.generate("simulated", call.getArgument(0)).map(response -> {
+                Object parsed = ((Function<String, Object>) call.getArgument(2)).apply(response);
+                assertNotNull(parsed, () -> "Simulated response was not parsed: " + response);
+                return parsed;
+            }));
+        when(summaryJobService.enqueue(any())).thenReturn(Mono.empty());
+
+        ModelCallPolicyProperties policies = new ModelCallPolicyProperties();
+        questionManageService = new QuestionManageService(questionService, geminiService, summaryJobService,
+            historySelector, mock(ModelCircuitBreaker.class), questionPoolService, followUpDraftService, jsonCodecs,
+            policies, Duration.ofDays(7));
+        categoryManageService = new CategoryManageService(categoryService, geminiService, jsonCodecs, policies,
+            Duration.ofHours(24));
+    }
+
+    @Test
+    void createdQuestionIsParsed() {
+        when(questionPoolService.claim(any(), any())).thenReturn(Mono.empty());
+        when(historySelector.select(any(), any())).thenReturn(Mono.just(""));
+        when(questionService.insert(any())).thenReturn(Mono.just(new Question()));
+
+        questionManageService.createQuestion(request(null, null)).block();
+
+        ArgumentCaptor<QuestionRequest> inserted = ArgumentCaptor.forClass(QuestionRequest.class);
+        verify(questionService).insert(inserted.capture());
+        assertNotNull(inserted.getValue().question());
+        assertFalse(inserted.getValue().question().isBlank());
+    }
+
+    @Test
+    void gradeIsParsed() {
+        when(questionService.updateGrade(any())).thenReturn(Mono.just(question("q1")));
+
+        questionManageService.userAnswered(request("q1", "answer")).block();
+
+        ArgumentCaptor<QuestionRequest> graded = ArgumentCaptor.forClass(QuestionRequest.class);
+        verify(questionService).updateGrade(graded.capture());
+        assertNotNull(graded.getValue().score());
+        assertNotNull(graded.getValue().modelAnswer());
+    }
+
+    @Test
+    void additionalQuestionsAreParsed() {
+        when(followUpDraftService.take(any(), any())).thenReturn(Mono.empty());
+        when(questionService.appendAdditionalQuestions(any(), anyInt())).thenReturn(Mono.just(question("q1")));
+
+        questionManageService.getAdditionalQuestionsAndAnswers(request("q1", "answer")).block();
+
+        ArgumentCaptor<QuestionRequest> answered = ArgumentCaptor.forClass(QuestionRequest.class);
+        verify(questionService).appendAdditionalQuestions(answered.capture(), anyInt());
+        assertEquals(3, answered.getValue().additionalQuestions().size());
+    }
+
+    @Test
+    void simplifiedQuestionIsParsed() {
+        when(questionService.saveSimplifiedQuestion(any())).thenReturn(Mono.just(new SimplifiedQuestion()));
+
+        questionManageService.saveSimplifiedQuestion(question("q1")).block();
+
+        ArgumentCaptor<SimplifiedQuestionRequest> saved = ArgumentCaptor.forClass(SimplifiedQuestionRequest.class);
+        verify(questionService).saveSimplifiedQuestion(saved.capture());
+        assertEquals("q1", saved.getValue()._id());
+        assertEquals(3, saved.getValue().expYears());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchSimplifiedQuestionsAreParsed() {
+        when(questionService.saveSimplifiedQuestion(any())).thenReturn(Mono.just(new SimplifiedQuestion()));
+
+        questionManageService.saveSimplifiedQuestions(List.of(question("q1"), question("q2"))).collectList().block();
+
+        // a question missing from the batch response would be summarized with a single call
+        verify(geminiService, never()).generateResponse(anyString(), any(GenerationOptions.class), any(Function.class));
+        verify(questionService, times(2)).saveSimplifiedQuestion(any());
+    }
+
+    @Test
+    void simplifiedResponseCopiesCategoryAndExpYears() throws Exception {
+        String prompt = "For each question record below\n" + List.of(
+            request("q1", "answer"),
+            QuestionRequest.builder()._id("q2").question("a, b").category("spring").expYears(7).build());
+
+        SimplifiedQuestionRequest[] parsed = jsonCodecs.read(simulator.generate("simulated", prompt).block(),
+            SimplifiedQuestionRequest[].class);
+
+        assertEquals(2, parsed.length);
+        assertEquals("java", parsed[0].category());
+        assertEquals(3, parsed[0].expYears());
+        assertEquals("q2", parsed[1]._id());
+        assertEquals("spring", parsed[1].category());
+        assertEquals(7, parsed[1].expYears());
+    }
+
+    @Test
+    void singleCategoryIsParsed() {
+        Category category = category("java");
+        when(categoryService.findByName("java")).thenReturn(Mono.just(category));
+        when(categoryService.update(any())).thenReturn(Mono.just(category));
+
+        assertNotNull(categoryManageService.manageSingleCategory("java").block());
+    }
+
+    @Test
+    void allCategoriesAreParsed() {
+        when(categoryService.findAll()).thenReturn(Flux.just(category("java"), category("spring")));
+        when(categoryService.updateDescriptions(anyList()))
+            .thenReturn(Mono.just(new DescriptionUpdates(Set.of(), Map.of())));
+
+        List<CategoryManageResult> results = categoryManageService.manageAllCategories().collectList().block();
+
+        assertEquals(2, results.size());
+        results.forEach(result -> assertFalse(result.outcome() == Outcome.NOT_FOUND, result::toString));
+    }
+
+    private static QuestionRequest request(String id, String userAnswer) {
+        return QuestionRequest.builder()
+            ._id(id)
+            .question(id == null ? null : "What is a thread pool?")
+            .userAnswer(userAnswer)
+            .category("java")
+            .expYears(3)
+            .build();
+    }
+
+    private static Question question(String id) {
+        return Question.builder()
+            ._id(id)
+            .question("What is a thread pool?")
+            .userAnswer("answer")
+            .modelAnswer("model answer")
+            .score(80)
+            .category("java")
+            .expYears(3)
+            .build();
+    }
+
+    private static Category category(String name) {
+        return Category.builder()
+            .name(name)
+            .description(name + " description")
+            .build();
+    }
+}
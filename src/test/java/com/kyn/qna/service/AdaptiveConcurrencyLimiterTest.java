@@ -0,0 +1,47 @@
+package com.kyn.qna.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.kyn.qna.dto.ModelPriority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(),
+        10, 1, 64, 100, Duration.ofSeconds(10), 100, Duration.ofSeconds(10), 0.5, Duration.ofSeconds(30),
+        Duration.ofMillis(50), 0.5);
+
+    @Test
+    void timeoutOutsideTheLimiterShrinksTheLimit() {
+        Mono<String> attempt = limiter.run(ModelPriority.INTERACTIVE, Mono::<String>never)
+            .timeout(Duration.ofMillis(200));
+
+        assertThrows(RuntimeException.class, attempt::block);
+
+        assertEquals(5.0, limiter.currentLimit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void fastCancelKeepsTheLimit() {
+        limiter.run(ModelPriority.INTERACTIVE, Mono::<String>never).subscribe().dispose();
+
+        assertEquals(10.0, limiter.currentLimit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void fastSuccessGrowsTheLimit() {
+        limiter.run(ModelPriority.INTERACTIVE, () -> Mono.just("ok")).block();
+
+        assertTrue(limiter.currentLimit() > 10.0);
+    }
+}
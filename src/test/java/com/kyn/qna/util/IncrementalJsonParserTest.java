@@ -0,0 +1,164 @@
+package com.kyn.qna.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.kyn.qna.util.IncrementalJsonParser.Event;
+import com.kyn.qna.util.IncrementalJsonParser.EventType;
+
+import reactor.core.publisher.Flux;
+
+class IncrementalJsonParserTest {
+
+    @Test
+    void decodesEscapeSplitAcrossChunks() {
+        IncrementalJsonParser parser = new IncrementalJsonParser();
+        List<Event> events = new ArrayList<>();
+        events.addAll(parser.feed("{\"a\": \"say \\"));
+        events.addAll(parser.feed("\"hi\\"));
+        events.addAll(parser.feed("\" \\\\ \\n\"}"));
+
+        assertEquals("say \"hi\" \\ \n", values(events).get("a"));
+        assertEquals("say \"hi\" \\ \n", text(events, "a"));
+        assertTrue(parser.isComplete());
+    }
+
+    @Test
+    void decodesUnicodeEscapeAtEverySplit() {
+        String json = "{\"answer\": \"\\uD55C\\uae00 ok\"}";
+        for (int split = 1; split < json.length(); split++) {
+            IncrementalJsonParser parser = new IncrementalJsonParser();
+            List<Event> events = new ArrayList<>(parser.feed(json.substring(0, split)));
+            events.addAll(parser.feed(json.substring(split)));
+
+            assertEquals("\uD55C\uAE00 ok", values(events).get("answer"), "split at " + split);
+            assertEquals("\uD55C\uAE00 ok", text(events, "answer"), "split at " + split);
+        }
+    }
+
+    @Test
+    void pathsOfArrayOfObjects() {
+        String json = "[{\"question\": \"q1\", \"answer\": \"a1\"}, {\"question\": \"q2\", \"answer\": \"a2\"}]";
+        List<Event> events = feedInChunks(json, 3);
+
+        Map<String, Object> values = values(events);
+        assertEquals(List.of("[0].question", "[0].answer", "[1].question", "[1].answer"), new ArrayList<>(values.keySet()));
+        assertEquals("a2", values.get("[1].answer"));
+        assertEquals(List.of("[0]", "[1]", ""), ends(events));
+    }
+
+    @Test
+    void pathsOfNestedArrays() {
+        String json = "{\"items\": [[1, 2], [], [{\"k\": \"v\"}]], \"last\": true}";
+        List<Event> events = feedInChunks(json, 1);
+
+        Map<String, Object> values = values(events);
+        assertEquals(1L, values.get("items[0][0]"));
+        assertEquals(2L, values.get("items[0][1]"));
+        assertEquals("v", values.get("items[2][0].k"));
+        assertEquals(Boolean.TRUE, values.get("last"));
+        assertEquals(List.of("items[0]", "items[1]", "items[2][0]", "items[2]", "items", ""), ends(events));
+    }
+
+    @Test
+    void parsesLiterals() {
+        String json = "{\"score\": 85, \"ratio\": 0.5, \"exp\": 1e3, \"neg\": -3, \"ok\": true, \"no\": false, \"none\": null,"
+            + " \"bare\": maybe}";
+        for (int size = 1; size <= 4; size++) {
+            Map<String, Object> values = values(feedInChunks(json, size));
+
+            assertEquals(85L, values.get("score"));
+            assertEquals(0.5, values.get("ratio"));
+            assertEquals(1000.0, values.get("exp"));
+            assertEquals(-3L, values.get("neg"));
+            assertEquals(Boolean.TRUE, values.get("ok"));
+            assertEquals(Boolean.FALSE, values.get("no"));
+            assertTrue(values.containsKey("none"));
+            assertNull(values.get("none"));
+            // unquoted text is kept as a string
+            assertEquals("maybe", values.get("bare"));
+        }
+    }
+
+    @Test
+    void streamsTextOfGrowingString() {
+        IncrementalJsonParser parser = new IncrementalJsonParser();
+        parser.feed("{\"answer\": \"");
+
+        assertEquals(List.of(new Event(EventType.TEXT, "answer", "Garbage ", null)), parser.feed("Garbage "));
+        assertEquals(List.of(new Event(EventType.TEXT, "answer", "collection", null),
+                new Event(EventType.VALUE, "answer", null, "Garbage collection"),
+                new Event(EventType.END, "", null, null)),
+            parser.feed("collection\"}"));
+    }
+
+    @Test
+    void streamEndingInsideString() {
+        IncrementalJsonParser parser = new IncrementalJsonParser();
+        List<Event> events = new ArrayList<>(parser.feed("{\"score\": 85, \"answer\": \"part"));
+        events.addAll(parser.feed("ial \\u00"));
+
+        assertEquals(Map.of("score", 85L), values(events));
+        assertEquals("partial ", text(events, "answer"));
+        assertFalse(parser.isComplete());
+    }
+
+    @Test
+    void streamEndingInsideLiteral() {
+        List<Event> events = IncrementalJsonParser.parse(Flux.just("{\"answer\": \"a\", \"score\": 8")).collectList().block();
+
+        // 8 may be the start of 85, so it is not reported
+        assertEquals(Map.of("answer", "a"), values(events));
+    }
+
+    @Test
+    void skipsCodeFenceAndTrailingText() {
+        List<Event> events = IncrementalJsonParser.parse(Flux.just("```json\n{\"a\"", ": 1}\n``", "`\n{\"b\": 2}"))
+            .collectList().block();
+
+        assertEquals(Map.of("a", 1L), values(events));
+        assertEquals(List.of(""), ends(events));
+    }
+
+    private static List<Event> feedInChunks(String json, int size) {
+        IncrementalJsonParser parser = new IncrementalJsonParser();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < json.length(); i += size) {
+            events.addAll(parser.feed(json.substring(i, Math.min(json.length(), i + size))));
+        }
+        assertTrue(parser.isComplete());
+        return events;
+    }
+
+    private static Map<String, Object> values(List<Event> events) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        events.stream()
+            .filter(event -> event.type() == EventType.VALUE)
+            .forEach(event -> values.put(event.path(), event.value()));
+        return values;
+    }
+
+    private static String text(List<Event> events, String path) {
+        StringBuilder text = new StringBuilder();
+        events.stream()
+            .filter(event -> event.type() == EventType.TEXT && event.path().equals(path))
+            .forEach(event -> text.append(event.text()));
+        return text.toString();
+    }
+
+    private static List<String> ends(List<Event> events) {
+        return events.stream()
+            .filter(event -> event.type() == EventType.END)
+            .map(Event::path)
+            .toList();
+    }
+}
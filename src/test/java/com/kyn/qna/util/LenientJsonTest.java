@@ -0,0 +1,101 @@
+package com.kyn.qna.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kyn.qna.dto.AdditionalQuestion;
+
+class LenientJsonTest {
+
+    @Test
+    void passesValidJsonThrough() {
+        String json = "{\"question\": \"a \\\"quoted\\\" word\", \"score\": 85, \"tags\": [\"x\", \"y\"], \"ok\": true}";
+
+        assertEquals(json, LenientJson.repairToString(json));
+    }
+
+    @Test
+    void stripsCodeFences() {
+        assertEquals("{\"question\": \"q\"}", LenientJson.repairToString("```json\n{\"question\": \"q\"}\n```"));
+        assertEquals("[1, 2]", LenientJson.repairToString("```\n[1, 2]```"));
+    }
+
+    @Test
+    void stripsProseAroundTheValue() {
+        assertEquals("[{\"a\": 1}]", LenientJson.repairToString("Here is the result: [{\"a\": 1}] Hope it helps!"));
+    }
+
+    @Test
+    void dropsTrailingCommas() {
+        assertEquals("{\"a\": [1, 2] }", LenientJson.repairToString("{\"a\": [1, 2,], }"));
+        assertEquals("[{\"a\": 1}\n]", LenientJson.repairToString("[{\"a\": 1},\n]"));
+    }
+
+    @Test
+    void keepsCommasInsideStrings() {
+        String json = "{\"a\": \"1, 2,\"}";
+
+        assertEquals(json, LenientJson.repairToString(json));
+    }
+
+    @Test
+    void escapesUnescapedQuotes() {
+        assertEquals("{\"answer\": \"He said \\\"hi\\\" to me\", \"score\": 1}",
+            LenientJson.repairToString("{\"answer\": \"He said \"hi\" to me\", \"score\": 1}"));
+    }
+
+    @Test
+    void escapesQuotesFollowedByACommaInsideText() {
+        // in an object a real closing quote plus comma is followed by the next key
+        assertEquals("{\"answer\": \"use \\\"final\\\", then\"}",
+            LenientJson.repairToString("{\"answer\": \"use \"final\", then\"}"));
+    }
+
+    @Test
+    void escapesControlCharactersAndInvalidEscapes() {
+        assertEquals("{\"a\": \"line1\\nline2\\tC:\\\\path\"}",
+            LenientJson.repairToString("{\"a\": \"line1\nline2\tC:\\path\"}"));
+    }
+
+    @Test
+    void keepsUnicodeEscapes() {
+        String json = "{\"a\": \"\\uD55C\\uAE00\"}";
+
+        assertEquals(json, LenientJson.repairToString(json));
+    }
+
+    @Test
+    void closesTruncatedString() {
+        assertEquals("{\"question\": \"abc\", \"answer\": \"def\"}",
+            LenientJson.repairToString("{\"question\": \"abc\", \"answer\": \"def"));
+    }
+
+    @Test
+    void closesTruncatedValueAfterKey() {
+        assertEquals("[{\"a\": 1}, {\"b\": null}]", LenientJson.repairToString("[{\"a\": 1}, {\"b\": "));
+    }
+
+    @Test
+    void dropsCommaLeftByTruncation() {
+        assertEquals("[1, 2]", LenientJson.repairToString("[1, 2,"));
+    }
+
+    @Test
+    void closesTruncatedFencedResponse() {
+        assertEquals("[{\"question\": \"q\", \"answer\": \"a\"}]",
+            LenientJson.repairToString("```json\n[{\"question\": \"q\", \"answer\": \"a"));
+    }
+
+    @Test
+    void readsRepairedJson() throws Exception {
+        AdditionalQuestion[] questions = LenientJson.read(new ObjectMapper().readerFor(AdditionalQuestion[].class),
+            "```json\n[{\"question\": \"What is \"GC\"?\", \"answer\": \"Garbage collection\",},\n{\"question\": \"Why\", \"answer\": \"Because");
+
+        assertEquals(2, questions.length);
+        assertEquals("What is \"GC\"?", questions[0].getQuestion());
+        assertEquals("Garbage collection", questions[0].getAnswer());
+        assertEquals("Because", questions[1].getAnswer());
+    }
+}
@@ -0,0 +1,94 @@
+package com.kyn.qna.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * PromptTemplate has to produce the same bytes as the chained String.replace calls it replaced,
+ * so cached responses and recorded calls keyed by the prompt stay valid.
+ *
+ * Throughput is compared in PromptTemplateBenchmark (jmh profile), not here.
+ */
+class PromptTemplateTest {
+
+    private static final String CREATION = """
+            You are a developer interviewer.
+            Please create a question that you would like to ask the developer of year {expYears} about technology stack {category} for the interview.
+            In addition, please refer to the past records to give new question or advanced question.
+            past records : {history}
+
+            Please respond with ONLY a valid JSON object in this exact format:
+            {
+                "question": "question"
+            }
+            """;
+
+    private static final String CATEGORY = """
+                =======================
+                "name": "{category_name}",
+                "description": "{category_description}"
+            """;
+
+    @Test
+    void rendersLikeChainedReplace() {
+        String history = "[Question(question=What is a JVM?, score=80), Question(question=GC roots?, score=65)]";
+        String legacy = CREATION
+            .replace("{history}", history)
+            .replace("{category}", "java")
+            .replace("{expYears}", String.valueOf(3));
+
+        String rendered = PromptTemplate.compile(CREATION, "history", "category", "expYears")
+            .render(history, "java", 3);
+
+        assertEquals(legacy, rendered);
+    }
+
+    @Test
+    void rendersRepeatedPlaceholdersAndNonAsciiLikeChainedReplace() {
+        String template = CATEGORY + "{category_name} again\n";
+        String description = "스프링 기반 \"reactive\" 웹 프레임워크 \\ {not a placeholder";
+        String legacy = template
+            .replace("{category_name}", "webflux")
+            .replace("{category_description}", description);
+
+        String rendered = PromptTemplate.compile(template, "category_name", "category_description")
+            .render("webflux", description);
+
+        assertEquals(legacy, rendered);
+    }
+
+    @Test
+    void rendersToStringOfValuesLikeChainedReplace() {
+        List<String> values = List.of("a", "b");
+        String template = "questions: {questions}";
+
+        assertEquals(template.replace("{questions}", values.toString()),
+            PromptTemplate.compile(template, "questions").render(values));
+        assertEquals(template.replace("{questions}", "null"),
+            PromptTemplate.compile(template, "questions").render((Object) null));
+    }
+
+    @Test
+    void leavesJsonBracesAlone() {
+        String template = "{ \"score\": 85 } {value}";
+
+        assertEquals("{ \"score\": 85 } 1", PromptTemplate.compile(template, "value").render(1));
+    }
+
+    @Test
+    void rejectsUndeclaredAndUnusedPlaceholders() {
+        assertThrows(IllegalStateException.class, () -> PromptTemplate.compile("{a} {b}", "a"));
+        assertThrows(IllegalStateException.class, () -> PromptTemplate.compile("{a}", "a", "b"));
+    }
+
+    @Test
+    void rejectsWrongNumberOfValues() {
+        PromptTemplate template = PromptTemplate.compile("{a} {b}", "a", "b");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("x"));
+    }
+}